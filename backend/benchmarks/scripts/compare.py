@@ -0,0 +1,76 @@
+#!/usr/bin/env python3
+"""Compares two JMH JSON result files and fails when a benchmark regressed.
+
+Usage: compare.py BASELINE.json CURRENT.json [--threshold PERCENT]
+
+A benchmark counts as regressed when it got worse by more than the threshold and the change is
+larger than the combined error margins of both runs, so noise alone does not fail a build.
+Exits with 1 when any benchmark regressed.
+"""
+
+import argparse
+import json
+import sys
+
+# Modes where a lower score is better; throughput modes are the other way round
+LOWER_IS_BETTER = {"avgt", "sample", "ss"}
+
+
+def load(path):
+    with open(path) as f:
+        results = {}
+        for entry in json.load(f):
+            params = ",".join(f"{k}={v}" for k, v in sorted((entry.get("params") or {}).items()))
+            name = entry["benchmark"].rsplit(".", 2)
+            key = ".".join(name[-2:]) + (f" [{params}]" if params else "")
+            metric = entry["primaryMetric"]
+            error = metric.get("scoreError")
+            results[key] = {
+                "mode": entry["mode"],
+                "score": metric["score"],
+                "error": error if isinstance(error, (int, float)) else 0.0,
+                "unit": metric["scoreUnit"],
+            }
+        return results
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=10.0, help="allowed slowdown in percent (default 10)")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+
+    regressions = 0
+    width = max((len(k) for k in current), default=20)
+    print(f"{'benchmark':<{width}}  {'baseline':>14}  {'current':>14}  {'change':>8}")
+    for key in sorted(current):
+        now = current[key]
+        before = baseline.get(key)
+        if before is None or before["unit"] != now["unit"] or before["score"] == 0:
+            print(f"{key:<{width}}  {'-':>14}  {now['score']:>11.2f} {now['unit']:<3}  {'new':>8}")
+            continue
+
+        change = (now["score"] - before["score"]) / before["score"] * 100
+        worse = change if now["mode"] in LOWER_IS_BETTER else -change
+        significant = abs(now["score"] - before["score"]) > before["error"] + now["error"]
+        regressed = worse > args.threshold and significant
+        regressions += regressed
+
+        print(f"{key:<{width}}  {before['score']:>14.2f}  {now['score']:>14.2f}  {change:>+7.1f}%"
+              + ("  REGRESSION" if regressed else ""))
+
+    for key in sorted(set(baseline) - set(current)):
+        print(f"{key:<{width}}  missing from current run")
+
+    if regressions:
+        print(f"\n{regressions} benchmark(s) regressed by more than {args.threshold:g}%")
+        return 1
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,18 @@
+#!/bin/bash
+# Builds the benchmark jar and runs it, writing JMH results as JSON.
+# Usage: scripts/run.sh [output.json] [extra JMH args...]
+#   scripts/run.sh results/baseline.json
+#   scripts/run.sh results/current.json OrderServiceBenchmark -p itemCount=10
+
+set -e
+
+cd "$(dirname "$0")/.."
+
+OUTPUT=${1:-results/$(git rev-parse --short HEAD 2>/dev/null || date +%Y%m%d%H%M%S).json}
+shift || true
+
+mkdir -p "$(dirname "$OUTPUT")"
+mvn -B -q clean package -DskipTests
+java -jar target/benchmarks.jar -rf json -rff "$OUTPUT" "$@"
+
+echo "Results written to $OUTPUT"
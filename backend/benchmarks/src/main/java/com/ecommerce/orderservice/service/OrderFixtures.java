@@ -0,0 +1,57 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Builds fully populated orders so every mapped field is exercised.
+ */
+final class OrderFixtures {
+
+    private OrderFixtures() {
+    }
+
+    static Order order(int itemCount) {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+        Order order = new Order();
+        order.setId(42L);
+        order.setOrderNumber("ORD-20240115103000-1A2B3C4D");
+        order.setUserId(7L);
+        order.setUserEmail("jane.doe@example.com");
+        order.setStatus(Order.OrderStatus.CONFIRMED);
+        order.setShippingAmount(new BigDecimal("4.99"));
+        order.setPaymentMethod("CARD");
+        order.setPaymentStatus("PAID");
+        order.setShippingAddressLine1("221B Baker Street");
+        order.setShippingAddressLine2("Flat 2");
+        order.setShippingCity("London");
+        order.setShippingState("Greater London");
+        order.setShippingCountry("GB");
+        order.setShippingPostalCode("NW1 6XE");
+        order.setNotes("Leave with the concierge");
+        order.setTrackingNumber("1Z999AA10123456784");
+        order.setCreatedAt(now);
+        order.setUpdatedAt(now);
+
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setId((long) i + 1);
+            item.setProductId(1000L + i);
+            item.setProductSku("SKU-" + (1000 + i));
+            item.setProductName("Product " + i);
+            item.setQuantity(1 + i % 4);
+            item.setUnitPrice(new BigDecimal("19.995"));
+            item.setDiscountAmount(new BigDecimal("1.50"));
+            item.setCreatedAt(now);
+            order.addItem(item);
+        }
+
+        new OrderTotalsCalculator("USD", RoundingMode.HALF_UP, new BigDecimal("0.08")).apply(order);
+        return order;
+    }
+}
@@ -0,0 +1,92 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same order totals computed two ways: OrderTotalsCalculator with long minor units, and the
+ * identical pricing rules chained in BigDecimal as createOrder did before Money. Both write the
+ * same values onto the order, so the difference is the cost of the arithmetic alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderTotalsBenchmark {
+
+    private static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+    private static final BigDecimal TAX_RATE = new BigDecimal("0.08");
+
+    @Param({"1", "10", "50"})
+    private int itemCount;
+
+    private OrderTotalsCalculator totalsCalculator;
+    private Order moneyOrder;
+    private Order bigDecimalOrder;
+
+    @Setup
+    public void setUp() {
+        totalsCalculator = new OrderTotalsCalculator("USD", ROUNDING, TAX_RATE);
+        moneyOrder = OrderFixtures.order(itemCount);
+        bigDecimalOrder = OrderFixtures.order(itemCount);
+    }
+
+    @Benchmark
+    public Order money() {
+        totalsCalculator.apply(moneyOrder);
+        return moneyOrder;
+    }
+
+    @Benchmark
+    public Order bigDecimal() {
+        applyWithBigDecimal(bigDecimalOrder);
+        return bigDecimalOrder;
+    }
+
+    private static void applyWithBigDecimal(Order order) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal totalTax = BigDecimal.ZERO;
+        BigDecimal totalDiscount = BigDecimal.ZERO;
+
+        for (OrderItem item : order.getItems()) {
+            BigDecimal unitPrice = item.getUnitPrice().setScale(2, ROUNDING);
+            BigDecimal discount = item.getDiscountAmount() != null ? item.getDiscountAmount().setScale(2, ROUNDING) : BigDecimal.ZERO;
+            BigDecimal lineSubtotal = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
+            BigDecimal tax = lineSubtotal.subtract(discount).multiply(TAX_RATE).setScale(2, ROUNDING);
+
+            item.setUnitPrice(unitPrice);
+            item.setDiscountAmount(discount);
+            item.setTaxAmount(tax);
+            item.setTotalPrice(lineSubtotal.subtract(discount).add(tax));
+
+            subtotal = subtotal.add(lineSubtotal);
+            totalTax = totalTax.add(tax);
+            totalDiscount = totalDiscount.add(discount);
+        }
+
+        BigDecimal shipping = order.getShippingAmount() != null ? order.getShippingAmount().setScale(2, ROUNDING) : BigDecimal.ZERO;
+
+        order.setSubtotal(subtotal);
+        order.setTaxAmount(totalTax);
+        order.setShippingAmount(shipping);
+        order.setDiscountAmount(totalDiscount);
+        order.setTotalAmount(subtotal.subtract(totalDiscount).add(totalTax).add(shipping));
+    }
+}
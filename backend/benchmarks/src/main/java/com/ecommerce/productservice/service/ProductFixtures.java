@@ -0,0 +1,46 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.entity.Category;
+import com.ecommerce.productservice.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Builds a fully populated catalog product so every mapped field is exercised.
+ */
+final class ProductFixtures {
+
+    private ProductFixtures() {
+    }
+
+    static Product product() {
+        Category category = new Category();
+        category.setId(3L);
+        category.setName("Headphones");
+
+        Product product = new Product();
+        product.setId(1001L);
+        product.setSku("SKU-1001");
+        product.setName("Wireless Noise Cancelling Headphones");
+        product.setDescription("Over-ear headphones with active noise cancelling and 30 hours of battery life.");
+        product.setPrice(new BigDecimal("249.99"));
+        product.setCompareAtPrice(new BigDecimal("299.99"));
+        product.setCategory(category);
+        product.setQuantity(120);
+        product.setIsActive(true);
+        product.setIsFeatured(true);
+        product.setImages(new HashSet<>(Set.of(
+                "https://storage.googleapis.com/products/1001/front.jpg",
+                "https://storage.googleapis.com/products/1001/side.jpg",
+                "https://storage.googleapis.com/products/1001/case.jpg")));
+        product.setTags(new HashSet<>(Set.of("audio", "wireless", "bluetooth", "travel")));
+        product.setRating(4.6);
+        product.setReviewCount(1873);
+        product.setBrand("Acme");
+        product.setCreatedAt(LocalDateTime.of(2024, 1, 15, 10, 30));
+        return product;
+    }
+}
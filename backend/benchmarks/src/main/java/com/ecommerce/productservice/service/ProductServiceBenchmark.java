@@ -0,0 +1,40 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.dto.ProductDTO;
+import com.ecommerce.productservice.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+
+    private ProductService productService;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        // mapToDTO touches none of the repositories
+        productService = new ProductService(null, null);
+        product = ProductFixtures.product();
+    }
+
+    @Benchmark
+    public ProductDTO mapToDTO() {
+        return productService.mapToDTO(product);
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What JwtAuthenticationFilter adds to every request: a claims-based token with the verified-token
+ * cache warm and cold, and an anonymous request. The revocation filter is empty and the active
+ * flag is served from its cache, so neither Redis nor the database is on the measured path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+    private static final FilterChain CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private MockHttpServletRequest authenticatedRequest;
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        UserActiveCache activeCache = new UserActiveCache(activeUsers(), new StringRedisTemplate(), new SimpleMeterRegistry(),
+                "users:active-invalidation", Duration.ofDays(1), 1_000);
+        TokenRevocationList revocationList = new TokenRevocationList(new StringRedisTemplate(), new SimpleMeterRegistry(),
+                100_000, 0.01, 3_600_000, Duration.ofSeconds(5));
+
+        JwtTokenProvider cachedProvider = provider(Duration.ofMinutes(5));
+        // A zero max-ttl expires every cache entry on creation
+        JwtTokenProvider uncachedProvider = provider(Duration.ZERO);
+        cachedFilter = new JwtAuthenticationFilter(cachedProvider, null, activeCache, revocationList);
+        uncachedFilter = new JwtAuthenticationFilter(uncachedProvider, null, activeCache, revocationList);
+
+        String token = cachedProvider.generateToken(7L, "jane.doe@example.com", List.of("ROLE_USER"), UUID.randomUUID().toString());
+        authenticatedRequest = new MockHttpServletRequest("GET", "/api/v1/users/me");
+        authenticatedRequest.addHeader("Authorization", "Bearer " + token);
+        anonymousRequest = new MockHttpServletRequest("GET", "/api/v1/products");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication authenticateCached() throws Exception {
+        return filter(cachedFilter, authenticatedRequest);
+    }
+
+    @Benchmark
+    public Authentication authenticateUncached() throws Exception {
+        return filter(uncachedFilter, authenticatedRequest);
+    }
+
+    @Benchmark
+    public Authentication anonymous() throws Exception {
+        return filter(cachedFilter, anonymousRequest);
+    }
+
+    private Authentication filter(JwtAuthenticationFilter filter, MockHttpServletRequest request) throws Exception {
+        try {
+            filter.doFilterInternal(request, response, CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // Every user is active; the cache TTL outlasts the run, so this is only hit during setup
+    private static UserRepository activeUsers() {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findActiveById")) {
+                        return Optional.of(true);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static JwtTokenProvider provider(Duration cacheMaxTtl) {
+        JwtTokenProvider provider = new JwtTokenProvider(SECRET, 10_000, cacheMaxTtl, new SimpleMeterRegistry());
+        setField(provider, "jwtExpiration", 3_600_000L);
+        setField(provider, "refreshExpiration", 604_800_000L);
+        return provider;
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
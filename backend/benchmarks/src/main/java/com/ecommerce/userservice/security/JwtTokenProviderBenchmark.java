@@ -0,0 +1,80 @@
+package com.ecommerce.userservice.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification. The cached variant measures what most requests pay once a token
+ * has been seen; the uncached one measures the full HMAC check of a first request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+    private static final List<String> ROLES = List.of("ROLE_USER");
+
+    private JwtTokenProvider cachedProvider;
+    private JwtTokenProvider uncachedProvider;
+    private String familyId;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedProvider = provider(Duration.ofMinutes(5));
+        // A zero max-ttl expires every cache entry on creation
+        uncachedProvider = provider(Duration.ZERO);
+        familyId = UUID.randomUUID().toString();
+        token = cachedProvider.generateToken(7L, "jane.doe@example.com", ROLES, familyId);
+        cachedProvider.parseClaims(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachedProvider.generateToken(7L, "jane.doe@example.com", ROLES, familyId);
+    }
+
+    @Benchmark
+    public Claims validateCached() {
+        return cachedProvider.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims validateUncached() {
+        return uncachedProvider.parseClaims(token);
+    }
+
+    private static JwtTokenProvider provider(Duration cacheMaxTtl) {
+        JwtTokenProvider provider = new JwtTokenProvider(SECRET, 10_000, cacheMaxTtl, new SimpleMeterRegistry());
+        setField(provider, "jwtExpiration", 3_600_000L);
+        setField(provider, "refreshExpiration", 604_800_000L);
+        return provider;
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
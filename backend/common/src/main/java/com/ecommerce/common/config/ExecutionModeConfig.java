@@ -0,0 +1,77 @@
+package com.ecommerce.common.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Opt-in execution mode for blocking I/O under high concurrency. spring.threads.virtual.enabled
+ * moves Tomcat, and @Async where a service enables it, onto virtual threads, and the database
+ * bulkhead caps concurrent connection holders at the pool capacity so cheap threads cannot
+ * stampede Postgres. The bulkhead follows the virtual-thread flag unless set explicitly.
+ */
+@Configuration
+@Slf4j
+public class ExecutionModeConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.bulkhead.database.enabled", havingValue = "true")
+    public static BeanPostProcessor databaseBulkheadPostProcessor(Environment environment,
+                                                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                int permits = environment.getProperty("app.bulkhead.database.permits", Integer.class, 0);
+                if (permits <= 0) {
+                    permits = poolCapacity(dataSource, environment);
+                }
+                Duration maxWait = environment.getProperty("app.bulkhead.database.max-wait", Duration.class, Duration.ofMillis(500));
+                log.info("Database bulkhead enabled with {} permits, max wait {}", permits, maxWait);
+                return new BulkheadDataSource(dataSource, permits, maxWait, meterRegistry.getObject());
+            }
+        };
+    }
+
+    // Primary pool plus, when reads are routed to replicas, every replica pool
+    private static int poolCapacity(DataSource dataSource, Environment environment) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari.getMaximumPoolSize();
+        }
+        int capacity = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        if (environment.getProperty("app.datasource.replica.enabled", Boolean.class, false)) {
+            String[] urls = environment.getProperty("app.datasource.replica.urls", String[].class, new String[0]);
+            capacity += urls.length * environment.getProperty("app.datasource.replica.pool-size", Integer.class, 10);
+        }
+        return capacity;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry, Environment environment) {
+        return new VirtualThreadPinningMonitor(meterRegistry,
+                environment.getProperty("app.virtual-threads.pinning-threshold", Duration.class, Duration.ofMillis(20)));
+    }
+
+    // Evaluated on the request thread serving /actuator/info, so it reports the mode actually in use
+    @Bean
+    public InfoContributor executionModeInfo(Environment environment) {
+        return builder -> builder.withDetail("execution", Map.of(
+                "virtualThreads", Thread.currentThread().isVirtual(),
+                "databaseBulkhead", environment.getProperty("app.bulkhead.database.enabled", Boolean.class, false),
+                "javaVersion", Runtime.version().feature()));
+    }
+}
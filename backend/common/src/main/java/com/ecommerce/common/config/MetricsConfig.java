@@ -0,0 +1,51 @@
+package com.ecommerce.common.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Hot-path instrumentation shared by the services. Repository method timers
+ * (spring.data.repository.invocations) come from Spring Boot; their percentile histograms and SLO
+ * buckets are set in each service's application.yml with those of the other latency metrics.
+ * This adds the per-request SQL statement count with N+1 detection and the slow-query log behind
+ * the sqlqueries actuator endpoint.
+ */
+@Configuration
+@Slf4j
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.sql-monitor.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor slowQueryPostProcessor(Environment environment,
+                                                           ObjectProvider<SqlQueryLog> queryLog,
+                                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                Duration threshold = environment.getProperty("app.sql-monitor.slow-query.threshold", Duration.class, Duration.ofMillis(200));
+                double bindSampleRate = environment.getProperty("app.sql-monitor.slow-query.bind-sample-rate", Double.class, 0.0);
+                log.info("Slow query log enabled above {}, sampling bind values at {}", threshold, bindSampleRate);
+                return new SlowQueryDataSource(dataSource, queryLog.getObject(), threshold, bindSampleRate, meterRegistry.getObject());
+            }
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.common.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Upper bound on the SQL statements one request to the annotated handler may issue; on a
+ * controller class it applies to every handler without its own budget. Exceeding it is logged and
+ * counted, and fails the request when app.sql-monitor.budget.fail-on-exceed is set, which is meant
+ * for tests.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface QueryBudget {
+
+    int value();
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.common.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Carries read-your-writes state between requests for ReplicaRoutingDataSource, so it holds no
+ * matter which instance serves the next request. A request that writes gets the commit time back
+ * in the X-Read-After header and a cookie of the same name; later requests echo it and their
+ * reads stay off replicas that have not replayed that far. Tokens older than the sticky window
+ * are ignored, and one can only push its own request's reads to the primary.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String TOKEN = "X-Read-After";
+
+    @Value("${app.datasource.replica.sticky-window:PT15S}")
+    private Duration stickyWindow;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReplicaRoutingDataSource.bindSession(new ReplicaRoutingDataSource.Session(
+                readAfter(request), committedAt -> issue(response, committedAt)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.clearSession();
+        }
+    }
+
+    private long readAfter(HttpServletRequest request) {
+        String token = request.getHeader(TOKEN);
+        if (token == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (TOKEN.equals(cookie.getName())) {
+                    token = cookie.getValue();
+                }
+            }
+        }
+        if (token == null) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        try {
+            long readAfter = Long.parseLong(token.trim());
+            return readAfter < now - stickyWindow.toMillis() ? 0 : Math.min(readAfter, now);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Writes that finish after the response is committed, e.g. while streaming, cannot be reported
+    private void issue(HttpServletResponse response, long committedAt) {
+        if (response.isCommitted()) {
+            return;
+        }
+        String value = Long.toString(committedAt);
+        response.setHeader(TOKEN, value);
+        response.setHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(TOKEN, value)
+                .path("/")
+                .maxAge(stickyWindow)
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build()
+                .toString());
+    }
+}
@@ -0,0 +1,239 @@
+package com.ecommerce.common.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to a healthy replica and everything else to
+ * the primary. Replicas are probed in the background and dropped from rotation when they are
+ * unreachable or lag more than the configured maximum; each probe also records how far the
+ * replica has replayed, as a wall-clock time. Read-your-writes works across instances: a request
+ * carrying the commit time of the caller's last write (see {@link ReadYourWritesFilter}) is only
+ * sent to replicas that have replayed past it, and to the primary otherwise.
+ *
+ * Must be wrapped in a LazyConnectionDataSourceProxy so the read-only flag is set before a
+ * connection is chosen.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private static final String LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END, " +
+            "NOT pg_is_in_recovery() OR pg_last_wal_replay_lsn() >= CAST(? AS pg_lsn), " +
+            "EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000";
+
+    private static final String PRIMARY_LSN_SQL = "SELECT CAST(pg_current_wal_lsn() AS TEXT)";
+
+    private static final ThreadLocal<Session> SESSION = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, Duration maxLag,
+                                    Duration healthCheckInterval, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLagMillis = maxLag.toMillis();
+        this.meterRegistry = meterRegistry;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : replicas) {
+            targets.put(replica.name(), replica.dataSource());
+            meterRegistry.gauge("datasource.replica.lag", Tags.of("pool", replica.name()), replica, r -> r.lagMillis);
+            meterRegistry.gauge("datasource.replica.healthy", Tags.of("pool", replica.name()), replica, r -> r.healthy ? 1 : 0);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-health-check");
+            t.setDaemon(true);
+            return t;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Bound per request by ReadYourWritesFilter
+    public static void bindSession(Session session) {
+        SESSION.set(session);
+    }
+
+    public static void clearSession() {
+        SESSION.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Session session = SESSION.get();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (session != null) {
+                recordWrite(session);
+            }
+            return route(PRIMARY, "write");
+        }
+
+        long readAfter = session != null ? session.readAfter : 0;
+        boolean skippedStale = false;
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            if (replica.replayedUntil < readAfter) {
+                skippedStale = true;
+                continue;
+            }
+            return route(replica.name(), "read");
+        }
+        return route(PRIMARY, skippedStale ? "sticky" : "fallback");
+    }
+
+    // Stamps the write with its commit time, which is what a replica has to have replayed past
+    private static void recordWrite(Session session) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            session.wrote(System.currentTimeMillis());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                session.wrote(System.currentTimeMillis());
+            }
+        });
+    }
+
+    private String route(String pool, String reason) {
+        meterRegistry.counter("datasource.routing", "pool", pool, "reason", reason).increment();
+        return pool;
+    }
+
+    private void checkReplicas() {
+        // Everything committed on the primary before checkedAt is at or below primaryLsn
+        long checkedAt = System.currentTimeMillis();
+        String primaryLsn = primaryLsn();
+
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource().getConnection();
+                 PreparedStatement statement = connection.prepareStatement(LAG_SQL)) {
+                statement.setQueryTimeout(2);
+                statement.setString(1, primaryLsn != null ? primaryLsn : "0/0");
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    replica.lagMillis = rs.getLong(1);
+                    if (primaryLsn != null && rs.getBoolean(2)) {
+                        replica.replayedUntil = checkedAt;
+                    } else if (rs.getObject(3) != null) {
+                        // Commits up to the last replayed transaction are visible
+                        replica.replayedUntil = Math.max(replica.replayedUntil, checkedAt - rs.getLong(3));
+                    }
+                }
+                boolean healthy = replica.lagMillis <= maxLagMillis;
+                if (healthy != replica.healthy) {
+                    log.info("Replica {} is now {} (lag {} ms)", replica.name(), healthy ? "in rotation" : "out of rotation", replica.lagMillis);
+                }
+                replica.healthy = healthy;
+            } catch (Exception e) {
+                if (replica.healthy) {
+                    log.warn("Replica {} failed health check, routing reads to primary", replica.name(), e);
+                }
+                replica.healthy = false;
+            }
+        }
+    }
+
+    private String primaryLsn() {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(2);
+            try (ResultSet rs = statement.executeQuery(PRIMARY_LSN_SQL)) {
+                rs.next();
+                return rs.getString(1);
+            }
+        } catch (Exception e) {
+            log.warn("Could not read the primary WAL position, replica freshness not advanced", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        healthChecker.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource().close());
+    }
+
+    public static final class Replica {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long lagMillis;
+        // Wall-clock time up to which the replica is known to have replayed every commit
+        private volatile long replayedUntil;
+
+        public Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public HikariDataSource dataSource() {
+            return dataSource;
+        }
+    }
+
+    /**
+     * Read-your-writes state of one request: the commit time the caller's reads must reflect, and
+     * a callback that hands the commit time of a write made by this request back to the caller.
+     */
+    public static final class Session {
+
+        private final LongConsumer onWrite;
+        private volatile long readAfter;
+
+        public Session(long readAfter, LongConsumer onWrite) {
+            this.readAfter = readAfter;
+            this.onWrite = onWrite;
+        }
+
+        // Later reads in the same request must see the write as well
+        void wrote(long committedAt) {
+            readAfter = Math.max(readAfter, committedAt);
+            onWrite.accept(committedAt);
+        }
+    }
+}
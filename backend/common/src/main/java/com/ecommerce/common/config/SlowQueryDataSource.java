@@ -0,0 +1,159 @@
+package com.ecommerce.common.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every statement execution and records those slower than the threshold in the
+ * {@link SqlQueryLog}. Bind values are only captured for a sampled fraction of prepared
+ * statements, so the common path costs two clock reads and one proxy hop per JDBC call, which is
+ * what lets this stay on in production where SQL debug logging cannot.
+ */
+@Slf4j
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    private static final int MAX_VALUE_LENGTH = 64;
+
+    private final SqlQueryLog queryLog;
+    private final long thresholdNanos;
+    private final double bindSampleRate;
+    private final Counter slowCounter;
+
+    public SlowQueryDataSource(DataSource target, SqlQueryLog queryLog, Duration threshold, double bindSampleRate,
+                               MeterRegistry meterRegistry) {
+        super(target);
+        this.queryLog = queryLog;
+        this.thresholdNanos = threshold.toNanos();
+        this.bindSampleRate = bindSampleRate;
+        this.slowCounter = meterRegistry.counter("sql.slow.queries");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> statement(PreparedStatement.class, (PreparedStatement) result, (String) args[0]);
+                case "prepareCall" -> statement(CallableStatement.class, (CallableStatement) result, (String) args[0]);
+                case "createStatement" -> statement(Statement.class, (Statement) result, null);
+                default -> result;
+            };
+        });
+    }
+
+    // sql is null for plain statements, whose SQL arrives with each execute call
+    private <S extends Statement> S statement(Class<S> type, S statement, String sql) {
+        Map<Integer, Object> parameters = sql != null && bindSampleRate > 0
+                && ThreadLocalRandom.current().nextDouble() < bindSampleRate ? new TreeMap<>() : null;
+        return proxy(type, (proxy, method, args) -> {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (parameters != null) {
+                    capture(parameters, name, args);
+                }
+                return invoke(statement, method, args);
+            }
+
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                if (elapsed >= thresholdNanos) {
+                    String executed = sql != null ? sql : args != null && args.length > 0 ? (String) args[0] : "(batch)";
+                    record(executed, elapsed, parameters);
+                }
+            }
+        });
+    }
+
+    // Batches keep the values of their last row
+    private static void capture(Map<Integer, Object> parameters, String name, Object[] args) {
+        if ("clearParameters".equals(name)) {
+            parameters.clear();
+        } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+            parameters.put(index, "setNull".equals(name) ? null : args[1]);
+        }
+    }
+
+    private void record(String sql, long elapsedNanos, Map<Integer, Object> parameters) {
+        slowCounter.increment();
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        List<String> values = null;
+        if (parameters != null) {
+            values = new ArrayList<>(parameters.size());
+            for (Object value : parameters.values()) {
+                values.add(render(value));
+            }
+        }
+        queryLog.addSlowQuery(new SqlQueryLog.SlowQuery(millis, sql, values, SqlStatementCounter.currentLabel()));
+        log.warn("Slow query took {} ms: {}", millis, sql);
+    }
+
+    private static String render(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        if (value instanceof InputStream || value instanceof Reader) {
+            return "<stream>";
+        }
+        String text = String.valueOf(value);
+        return text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) + "..." : text;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return handler.invoke(proxy, method, args);
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.common.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// GET /actuator/sqlqueries lists recent slow queries and N+1 suspects, DELETE clears them
+@Component
+@Endpoint(id = "sqlqueries")
+public class SqlQueriesEndpoint {
+
+    private final SqlQueryLog queryLog;
+
+    public SqlQueriesEndpoint(SqlQueryLog queryLog) {
+        this.queryLog = queryLog;
+    }
+
+    @ReadOperation
+    public Map<String, Object> queries() {
+        Map<String, Object> queries = new LinkedHashMap<>();
+        queries.put("slowQueries", queryLog.slowQueries());
+        queries.put("repeatedStatements", queryLog.repeatedStatements());
+        return queries;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        queryLog.clear();
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.common.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Test-time query budget assertions. Runs the work on the calling thread and throws an
+ * AssertionError, listing the statements that repeated, if it prepared more SQL statements than
+ * allowed. Works around MockMvc calls too, since those run the whole request on the same thread.
+ */
+public final class SqlQueryBudget {
+
+    private SqlQueryBudget() {
+    }
+
+    public static <T> T assertAtMost(int maxStatements, Supplier<T> work) {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.begin(null);
+        T result;
+        try {
+            result = work.get();
+        } finally {
+            SqlStatementCounter.end(scope);
+        }
+        check(maxStatements, scope, "Work");
+        return result;
+    }
+
+    public static void assertAtMost(int maxStatements, Runnable work) {
+        assertAtMost(maxStatements, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private static void check(int maxStatements, SqlStatementCounter.Scope scope, String what) {
+        if (scope.count() > maxStatements) {
+            throw new AssertionError(describe(maxStatements, scope, what));
+        }
+    }
+
+    static String describe(int maxStatements, SqlStatementCounter.Scope scope, String what) {
+        List<Map.Entry<String, Integer>> repeated = scope.repeated(2);
+        String message = String.format("%s issued %d SQL statements, budget is %d", what, scope.count(), maxStatements);
+        if (repeated.isEmpty()) {
+            return message;
+        }
+        return repeated.stream()
+                .map(e -> e.getValue() + "x " + e.getKey())
+                .collect(Collectors.joining("\n  ", message + "; repeated:\n  ", ""));
+    }
+}
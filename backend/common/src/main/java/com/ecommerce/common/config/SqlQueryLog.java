@@ -0,0 +1,94 @@
+package com.ecommerce.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounded in-memory record of recent slow statements and repeated-statement (N+1) suspects,
+ * served by the sqlqueries actuator endpoint. Once full, the oldest entries are overwritten.
+ */
+@Component
+public class SqlQueryLog {
+
+    private final RingBuffer<SlowQuery> slowQueries;
+    private final RingBuffer<RepeatedStatement> repeatedStatements;
+
+    public SqlQueryLog(@Value("${app.sql-monitor.log-capacity:100}") int capacity) {
+        this.slowQueries = new RingBuffer<>(capacity);
+        this.repeatedStatements = new RingBuffer<>(capacity);
+    }
+
+    public void addSlowQuery(SlowQuery slowQuery) {
+        slowQueries.add(slowQuery);
+    }
+
+    public void addRepeatedStatement(RepeatedStatement repeatedStatement) {
+        repeatedStatements.add(repeatedStatement);
+    }
+
+    // Newest first
+    public List<SlowQuery> slowQueries() {
+        return slowQueries.snapshot();
+    }
+
+    public List<RepeatedStatement> repeatedStatements() {
+        return repeatedStatements.snapshot();
+    }
+
+    public void clear() {
+        slowQueries.clear();
+        repeatedStatements.clear();
+    }
+
+    // parameters is null when the statement's bind values were not sampled
+    public record SlowQuery(String time, long durationMillis, String sql, List<String> parameters, String request) {
+
+        public SlowQuery(long durationMillis, String sql, List<String> parameters, String request) {
+            this(Instant.now().toString(), durationMillis, sql, parameters, request);
+        }
+    }
+
+    public record RepeatedStatement(String time, String request, String sql, int executions, int requestStatements) {
+
+        public RepeatedStatement(String request, String sql, int executions, int requestStatements) {
+            this(Instant.now().toString(), request, sql, executions, requestStatements);
+        }
+    }
+
+    private static final class RingBuffer<T> {
+
+        private final Object[] entries;
+        private int next;
+        private int size;
+
+        RingBuffer(int capacity) {
+            this.entries = new Object[Math.max(1, capacity)];
+        }
+
+        synchronized void add(T entry) {
+            entries[next] = entry;
+            next = (next + 1) % entries.length;
+            size = Math.min(size + 1, entries.length);
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized List<T> snapshot() {
+            List<T> snapshot = new ArrayList<>(size);
+            for (int i = 1; i <= size; i++) {
+                snapshot.add((T) entries[(next - i + entries.length) % entries.length]);
+            }
+            return snapshot;
+        }
+
+        synchronized void clear() {
+            Arrays.fill(entries, null);
+            next = 0;
+            size = 0;
+        }
+    }
+}
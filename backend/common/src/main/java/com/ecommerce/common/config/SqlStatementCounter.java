@@ -0,0 +1,85 @@
+package com.ecommerce.common.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, and how often each distinct
+ * statement was prepared so N+1 patterns stand out. Registered as Hibernate's statement inspector,
+ * so native queries are counted too; statements are already parameterised, so the SQL text is
+ * its own shape. Scopes nest, and a closed scope adds its statements to the enclosing one.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    static Scope begin(String label) {
+        Scope parent = CURRENT.get();
+        Scope scope = new Scope(parent, label != null || parent == null ? label : parent.label);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void end(Scope scope) {
+        if (scope.parent != null) {
+            scope.parent.merge(scope);
+            CURRENT.set(scope.parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    // What the current thread is working on, e.g. "GET /api/v1/orders/42", or null outside a scope
+    static String currentLabel() {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.label : null;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.count++;
+            scope.statements.merge(sql, 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    static final class Scope {
+
+        private final Scope parent;
+        private final String label;
+        private final Map<String, Integer> statements = new HashMap<>();
+        private int count;
+
+        private Scope(Scope parent, String label) {
+            this.parent = parent;
+            this.label = label;
+        }
+
+        int count() {
+            return count;
+        }
+
+        // Statements prepared at least threshold times, most frequent first
+        List<Map.Entry<String, Integer>> repeated(int threshold) {
+            List<Map.Entry<String, Integer>> repeated = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : statements.entrySet()) {
+                if (entry.getValue() >= threshold) {
+                    repeated.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+            repeated.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+            return repeated;
+        }
+
+        private void merge(Scope child) {
+            count += child.count;
+            child.statements.forEach((sql, n) -> statements.merge(sql, n, Integer::sum));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.common.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records how many SQL statements each request issued, tagged like http.server.requests. Requests
+ * that prepared the same statement repeatedly are flagged as N+1 suspects, and requests over their
+ * {@link QueryBudget} are reported, or failed when the budget is enforced.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Slf4j
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final SqlQueryLog queryLog;
+
+    @Value("${app.sql-monitor.repeated-statement-threshold:5}")
+    private int repeatedThreshold;
+
+    @Value("${app.sql-monitor.budget.default:0}")
+    private int defaultBudget;
+
+    @Value("${app.sql-monitor.budget.fail-on-exceed:false}")
+    private boolean failOnExceed;
+
+    public SqlStatementMetricsFilter(MeterRegistry meterRegistry, SqlQueryLog queryLog) {
+        this.meterRegistry = meterRegistry;
+        this.queryLog = queryLog;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.begin(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.end(scope);
+            record(request, scope);
+        }
+        checkBudget(request, scope);
+    }
+
+    private void record(HttpServletRequest request, SqlStatementCounter.Scope scope) {
+        String uri = uri(request);
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL statements issued while serving a request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(scope.count());
+
+        List<Map.Entry<String, Integer>> repeated = scope.repeated(repeatedThreshold);
+        if (repeated.isEmpty()) {
+            return;
+        }
+        String endpoint = request.getMethod() + " " + uri;
+        meterRegistry.counter("sql.repeated.statements", "method", request.getMethod(), "uri", uri).increment();
+        for (Map.Entry<String, Integer> entry : repeated) {
+            queryLog.addRepeatedStatement(new SqlQueryLog.RepeatedStatement(endpoint, entry.getKey(), entry.getValue(), scope.count()));
+        }
+        log.debug("{} repeated a statement {} times: {}", endpoint, repeated.get(0).getValue(), repeated.get(0).getKey());
+    }
+
+    private void checkBudget(HttpServletRequest request, SqlStatementCounter.Scope scope) {
+        int budget = budget(request);
+        if (budget <= 0 || scope.count() <= budget) {
+            return;
+        }
+        String uri = uri(request);
+        meterRegistry.counter("sql.budget.exceeded", "method", request.getMethod(), "uri", uri).increment();
+        String message = SqlQueryBudget.describe(budget, scope, request.getMethod() + " " + uri);
+        if (failOnExceed) {
+            throw new AssertionError(message);
+        }
+        log.warn(message);
+    }
+
+    private int budget(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+            if (budget == null) {
+                budget = handler.getBeanType().getAnnotation(QueryBudget.class);
+            }
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return uri != null ? uri.toString() : "UNKNOWN";
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+}
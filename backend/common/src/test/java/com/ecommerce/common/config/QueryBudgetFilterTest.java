@@ -0,0 +1,142 @@
+package com.ecommerce.common.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks how SqlStatementMetricsFilter applies {@link QueryBudget}: method over class over the
+ * configured default, reported by default and failed when enforcement is on.
+ */
+class QueryBudgetFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlQueryLog queryLog = new SqlQueryLog(10);
+    private SqlStatementMetricsFilter filter;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        filter = new SqlStatementMetricsFilter(meterRegistry, queryLog);
+        ReflectionTestUtils.setField(filter, "repeatedThreshold", 3);
+        mockMvc = MockMvcBuilders.standaloneSetup(new BudgetedController()).addFilters(filter).build();
+    }
+
+    @Test
+    void methodBudgetIsReportedWhenExceeded() throws Exception {
+        mockMvc.perform(get("/orders/3")).andExpect(status().isOk());
+
+        assertThat(exceeded("/orders/{count}")).isEqualTo(1);
+        assertThat(statements("/orders/{count}")).isEqualTo(3);
+    }
+
+    @Test
+    void methodBudgetOverridesTheClassBudget() throws Exception {
+        mockMvc.perform(get("/orders/2")).andExpect(status().isOk());
+
+        assertThat(exceeded("/orders/{count}")).isZero();
+    }
+
+    @Test
+    void classBudgetAppliesToHandlersWithoutTheirOwn() throws Exception {
+        mockMvc.perform(get("/orders/summary/5")).andExpect(status().isOk());
+        mockMvc.perform(get("/orders/summary/6")).andExpect(status().isOk());
+
+        assertThat(exceeded("/orders/summary/{count}")).isEqualTo(1);
+    }
+
+    @Test
+    void defaultBudgetAppliesToUnannotatedControllers() throws Exception {
+        ReflectionTestUtils.setField(filter, "defaultBudget", 1);
+        MockMvc unannotated = MockMvcBuilders.standaloneSetup(new UnbudgetedController()).addFilters(filter).build();
+
+        unannotated.perform(get("/products/1")).andExpect(status().isOk());
+        unannotated.perform(get("/products/2")).andExpect(status().isOk());
+
+        assertThat(exceeded("/products/{count}")).isEqualTo(1);
+    }
+
+    @Test
+    void noBudgetMeansNoCheck() throws Exception {
+        MockMvc unannotated = MockMvcBuilders.standaloneSetup(new UnbudgetedController()).addFilters(filter).build();
+
+        unannotated.perform(get("/products/50")).andExpect(status().isOk());
+
+        assertThat(meterRegistry.find("sql.budget.exceeded").counter()).isNull();
+    }
+
+    @Test
+    void enforcedBudgetFailsTheRequest() {
+        ReflectionTestUtils.setField(filter, "failOnExceed", true);
+
+        assertThatThrownBy(() -> mockMvc.perform(get("/orders/4")))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageStartingWith("GET /orders/{count} issued 4 SQL statements, budget is 2; repeated:");
+    }
+
+    @Test
+    void repeatedStatementsAreLoggedAsNPlusOneSuspects() throws Exception {
+        mockMvc.perform(get("/orders/4")).andExpect(status().isOk());
+
+        assertThat(queryLog.repeatedStatements()).singleElement()
+                .satisfies(suspect -> {
+                    assertThat(suspect.request()).isEqualTo("GET /orders/{count}");
+                    assertThat(suspect.executions()).isEqualTo(4);
+                });
+    }
+
+    private double exceeded(String uri) {
+        Counter counter = meterRegistry.find("sql.budget.exceeded").tag("uri", uri).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private double statements(String uri) {
+        return meterRegistry.get("http.server.requests.sql.statements").tag("uri", uri).summary().totalAmount();
+    }
+
+    // Prepares the same statement count times on the request thread, as an N+1 loop would
+    private static String issue(int count) {
+        SqlStatementCounter inspector = new SqlStatementCounter();
+        for (int i = 0; i < count; i++) {
+            inspector.inspect("select i1_0.id from order_items i1_0 where i1_0.order_id=?");
+        }
+        return "ok";
+    }
+
+    @RestController
+    @QueryBudget(5)
+    static class BudgetedController {
+
+        @GetMapping("/orders/{count}")
+        @QueryBudget(2)
+        String order(@PathVariable int count) {
+            return issue(count);
+        }
+
+        @GetMapping("/orders/summary/{count}")
+        String summary(@PathVariable int count) {
+            return issue(count);
+        }
+    }
+
+    @RestController
+    static class UnbudgetedController {
+
+        @GetMapping("/products/{count}")
+        String product(@PathVariable int count) {
+            return issue(count);
+        }
+    }
+}
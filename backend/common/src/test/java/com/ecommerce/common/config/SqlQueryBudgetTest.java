@@ -0,0 +1,77 @@
+package com.ecommerce.common.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives the statement counter the way Hibernate does, by calling the inspector for every
+ * statement it prepares on the current thread.
+ */
+class SqlQueryBudgetTest {
+
+    private static final String FIND_ORDER = "select o1_0.id from orders o1_0 where o1_0.id=?";
+    private static final String FIND_ITEMS = "select i1_0.id from order_items i1_0 where i1_0.order_id=?";
+
+    private final SqlStatementCounter inspector = new SqlStatementCounter();
+
+    @Test
+    void returnsTheResultWithinBudget() {
+        String result = SqlQueryBudget.assertAtMost(2, () -> {
+            inspector.inspect(FIND_ORDER);
+            inspector.inspect(FIND_ITEMS);
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+    }
+
+    @Test
+    void failsOverBudgetAndListsRepeatedStatements() {
+        assertThatThrownBy(() -> SqlQueryBudget.assertAtMost(2, () -> {
+            inspector.inspect(FIND_ORDER);
+            for (int i = 0; i < 3; i++) {
+                inspector.inspect(FIND_ITEMS);
+            }
+        }))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageStartingWith("Work issued 4 SQL statements, budget is 2; repeated:")
+                .hasMessageContaining("3x " + FIND_ITEMS)
+                .hasMessageNotContaining(FIND_ORDER);
+    }
+
+    @Test
+    void statementsOutsideTheWorkAreNotCounted() {
+        inspector.inspect(FIND_ORDER);
+
+        SqlQueryBudget.assertAtMost(0, () -> {
+        });
+        inspector.inspect(FIND_ORDER);
+
+        assertThat(SqlStatementCounter.currentLabel()).isNull();
+    }
+
+    @Test
+    void nestedBudgetsCountTowardsTheEnclosingOne() {
+        assertThatThrownBy(() -> SqlQueryBudget.assertAtMost(2, () -> {
+            inspector.inspect(FIND_ORDER);
+            SqlQueryBudget.assertAtMost(2, () -> {
+                inspector.inspect(FIND_ITEMS);
+                inspector.inspect(FIND_ITEMS);
+            });
+        }))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageStartingWith("Work issued 3 SQL statements, budget is 2");
+    }
+
+    @Test
+    void scopeIsClosedWhenTheWorkThrows() {
+        assertThatThrownBy(() -> SqlQueryBudget.assertAtMost(5, () -> {
+            inspector.inspect(FIND_ORDER);
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        SqlQueryBudget.assertAtMost(1, () -> inspector.inspect(FIND_ORDER));
+    }
+}
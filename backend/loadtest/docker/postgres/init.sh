@@ -0,0 +1,26 @@
+#!/bin/sh
+# Creates the three service databases, applies their schemas and seeds them.
+# Runs once from docker-entrypoint-initdb.d on an empty data directory.
+
+set -e
+
+PSQL="psql -v ON_ERROR_STOP=1 --username $POSTGRES_USER"
+
+for db in ecommerce_users ecommerce_products ecommerce_orders; do
+    $PSQL --dbname postgres -c "CREATE DATABASE $db"
+done
+
+# The users schema lives in the init job's ConfigMap, the source of truth for that database
+awk '/^  schema\.sql: [|]/{on=1; next} /^  [a-z-]+\.sql: [|]/{on=0} on' /schemas/init-db-job.yaml \
+    | sed 's/^    //' > /tmp/users-schema.sql
+$PSQL --dbname ecommerce_users -f /tmp/users-schema.sql
+
+$PSQL --dbname ecommerce_products -f /schemas/products/schema.sql
+$PSQL --dbname ecommerce_products -f /schemas/products/add_category_icons.sql
+$PSQL --dbname ecommerce_orders -f /schemas/orders/schema.sql
+
+echo "Seeding ${LOADTEST_USERS} users, ${LOADTEST_PRODUCTS} products, ${LOADTEST_ORDERS_PER_USER} orders per user"
+$PSQL --dbname ecommerce_users -v users="$LOADTEST_USERS" -v password="$LOADTEST_PASSWORD" -f /seed/seed-users.sql
+$PSQL --dbname ecommerce_products -v products="$LOADTEST_PRODUCTS" -f /seed/seed-products.sql
+$PSQL --dbname ecommerce_orders -v users="$LOADTEST_USERS" -v products="$LOADTEST_PRODUCTS" \
+    -v orders_per_user="$LOADTEST_ORDERS_PER_USER" -f /seed/seed-orders.sql
@@ -0,0 +1,77 @@
+-- Seeds order history for the load test users: on average :orders_per_user orders each with
+-- one to four items, spread over the last year across all statuses. The other two databases
+-- are seeded first: user n has id n, and product n has id n + 2 after the two sample products
+-- the products schema inserts.
+
+CREATE TEMP TABLE seed_orders AS
+SELECT o AS seq,
+       1 + (o - 1) % :users AS user_id,
+       now() - (random() * 365) * interval '1 day' AS created_at,
+       (ARRAY['DELIVERED', 'DELIVERED', 'DELIVERED', 'SHIPPED', 'CONFIRMED', 'PROCESSING', 'CANCELLED', 'PENDING'])[1 + o % 8] AS status,
+       1 + o % 4 AS item_count
+FROM generate_series(1, :users * :orders_per_user) AS o;
+
+CREATE TEMP TABLE seed_items AS
+SELECT seq,
+       i,
+       product_id,
+       quantity,
+       -- Historical prices only need to be plausible, not match today's catalog
+       round((5 + (product_id * 7919) % 995)::numeric, 2) AS unit_price
+FROM (SELECT s.seq,
+             i,
+             3 + floor(power(random(), 2) * :products)::bigint AS product_id,
+             1 + (s.seq + i) % 3 AS quantity
+      FROM seed_orders s
+      CROSS JOIN generate_series(1, 4) AS i
+      WHERE i <= s.item_count) d;
+
+INSERT INTO orders (order_number, user_id, user_email, status, subtotal, tax_amount, shipping_amount,
+                    discount_amount, total_amount, payment_method, payment_status, shipping_address_line1,
+                    shipping_city, shipping_state, shipping_country, shipping_postal_code, tracking_number,
+                    shipped_at, delivered_at, cancelled_at, created_at, updated_at)
+SELECT 'ORD-LT-' || lpad(s.seq::text, 9, '0'),
+       s.user_id,
+       'loadtest-user-' || s.user_id || '@example.com',
+       s.status,
+       t.subtotal,
+       round(t.subtotal * 0.08, 2),
+       5.00,
+       0.00,
+       t.subtotal + round(t.subtotal * 0.08, 2) + 5.00,
+       (ARRAY['CREDIT_CARD', 'PAYPAL', 'DEBIT_CARD'])[1 + s.seq % 3],
+       CASE s.status WHEN 'PENDING' THEN 'PENDING' WHEN 'CANCELLED' THEN 'FAILED' ELSE 'PAID' END,
+       (100 + s.user_id % 9000) || ' Main St', 'San Francisco', 'CA', 'USA', '94102',
+       CASE WHEN s.status IN ('SHIPPED', 'DELIVERED') THEN '1ZLT' || lpad(s.seq::text, 12, '0') END,
+       CASE WHEN s.status IN ('SHIPPED', 'DELIVERED') THEN s.created_at + interval '1 day' END,
+       CASE WHEN s.status = 'DELIVERED' THEN s.created_at + interval '4 days' END,
+       CASE WHEN s.status = 'CANCELLED' THEN s.created_at + interval '2 hours' END,
+       s.created_at,
+       s.created_at
+FROM seed_orders s
+JOIN (SELECT seq, sum(unit_price * quantity) AS subtotal FROM seed_items GROUP BY seq) t ON t.seq = s.seq
+ORDER BY s.created_at;
+
+INSERT INTO order_items (order_id, product_id, product_sku, product_name, quantity, unit_price,
+                         discount_amount, tax_amount, total_price, created_at)
+SELECT o.id,
+       i.product_id,
+       'LT-' || lpad((i.product_id - 2)::text, 7, '0'),
+       'Load test product ' || (i.product_id - 2),
+       i.quantity,
+       i.unit_price,
+       0.00,
+       round(i.unit_price * i.quantity * 0.08, 2),
+       i.unit_price * i.quantity + round(i.unit_price * i.quantity * 0.08, 2),
+       o.created_at
+FROM seed_items i
+JOIN orders o ON o.order_number = 'ORD-LT-' || lpad(i.seq::text, 9, '0');
+
+INSERT INTO order_status_history (order_id, status, notes, changed_by, created_at)
+SELECT id, 'PENDING', 'Order created', 'SYSTEM', created_at FROM orders WHERE order_number LIKE 'ORD-LT-%'
+UNION ALL
+SELECT id, status, 'Seeded', 'SYSTEM', updated_at FROM orders WHERE order_number LIKE 'ORD-LT-%' AND status <> 'PENDING';
+
+ANALYZE orders;
+ANALYZE order_items;
+ANALYZE order_status_history;
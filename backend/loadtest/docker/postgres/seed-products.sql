@@ -0,0 +1,75 @@
+-- Seeds a two-level category tree and :products products with a skewed popularity, so a few
+-- categories and brands dominate the way a real catalog does.
+
+INSERT INTO categories (name, slug, description, parent_id, is_active, created_at, updated_at)
+SELECT p.name || ' / ' || s.suffix,
+       lower(replace(p.name, ' ', '-')) || '-' || lower(s.suffix),
+       s.suffix || ' in ' || p.name,
+       p.id, true, now(), now()
+FROM categories p
+CROSS JOIN (VALUES ('Bestsellers'), ('New'), ('Premium'), ('Budget')) AS s(suffix)
+WHERE p.parent_id IS NULL
+ON CONFLICT (name) DO NOTHING;
+
+CREATE TEMP TABLE seed_categories AS
+SELECT row_number() OVER (ORDER BY id) - 1 AS idx, id FROM categories;
+
+SELECT count(*) AS category_count FROM seed_categories \gset
+
+INSERT INTO products (sku, name, description, price, compare_at_price, cost_price, category_id, quantity,
+                      low_stock_threshold, is_active, is_featured, rating, review_count, brand, weight_kg,
+                      created_at, updated_at)
+SELECT 'LT-' || lpad(g.n::text, 7, '0'),
+       (ARRAY['Wireless', 'Smart', 'Portable', 'Classic', 'Ultra', 'Eco', 'Pro', 'Compact'])[1 + g.n % 8] || ' ' ||
+       (ARRAY['Headphones', 'Speaker', 'Watch', 'Backpack', 'Lamp', 'Kettle', 'Jacket', 'Camera', 'Blender', 'Monitor'])[1 + (g.n / 8) % 10] ||
+       ' ' || g.n,
+       'Load test product ' || g.n || ' with a description long enough to resemble real catalog copy. '
+           || repeat('Durable, lightweight and easy to use. ', 1 + g.n % 5),
+       g.price,
+       CASE WHEN g.n % 3 = 0 THEN round(g.price * 1.2, 2) END,
+       round(g.price * 0.6, 2),
+       c.id,
+       -- A small share is out of stock
+       CASE WHEN g.n % 50 = 0 THEN 0 ELSE 20 + g.n % 500 END,
+       10,
+       g.n % 97 <> 0,
+       g.n % 40 = 0,
+       g.rating,
+       g.review_count,
+       (ARRAY['Acme', 'Globex', 'Initech', 'Umbrella', 'Stark', 'Wayne', 'Hooli', 'Soylent'])[1 + g.brand_idx],
+       g.weight,
+       now() - (g.n % 365) * interval '1 day',
+       now()
+-- Squared and cubed uniform draws skew products towards the first categories and brands,
+-- and most products towards few reviews
+FROM (SELECT n,
+             round((5 + power(random(), 2) * 995)::numeric, 2) AS price,
+             floor(power(random(), 2) * :category_count)::int AS category_idx,
+             floor(power(random(), 2) * 8)::int AS brand_idx,
+             round((2.5 + random() * 2.5)::numeric, 1) AS rating,
+             floor(power(random(), 3) * 5000)::int AS review_count,
+             round((0.1 + random() * 5)::numeric, 2) AS weight
+      FROM generate_series(1, :products) AS n) g
+JOIN seed_categories c ON c.idx = g.category_idx
+ON CONFLICT (sku) DO NOTHING;
+
+INSERT INTO product_images (product_id, image_url)
+SELECT id, 'https://storage.googleapis.com/loadtest-products/' || id || '/' || i || '.jpg'
+FROM products, generate_series(1, 3) AS i
+WHERE sku LIKE 'LT-%'
+ON CONFLICT DO NOTHING;
+
+INSERT INTO product_tags (product_id, tag)
+SELECT id, tag
+FROM products
+CROSS JOIN LATERAL (VALUES
+        ((ARRAY['sale', 'new', 'gift', 'eco', 'bestseller'])[1 + id % 5]),
+        ((ARRAY['home', 'outdoor', 'office', 'travel'])[1 + id % 4])
+    ) AS t(tag)
+WHERE sku LIKE 'LT-%'
+ON CONFLICT DO NOTHING;
+
+ANALYZE categories;
+ANALYZE products;
+ANALYZE product_images;
+ANALYZE product_tags;
@@ -0,0 +1,42 @@
+-- Seeds :users accounts loadtest-user-<n>@example.com, all with password :password.
+-- The table starts empty, so loadtest-user-<n> gets id <n>.
+
+CREATE EXTENSION IF NOT EXISTS pgcrypto;
+
+-- One BCrypt hash at the service's configured cost, shared by every account
+SELECT crypt(:'password', gen_salt('bf', 10)) AS password_hash \gset
+
+INSERT INTO users (email, password, first_name, last_name, phone_number, is_active, email_verified,
+                   created_at, updated_at)
+SELECT 'loadtest-user-' || n || '@example.com',
+       :'password_hash',
+       (ARRAY['Olivia', 'Liam', 'Emma', 'Noah', 'Ava', 'Elijah', 'Sophia', 'James', 'Mia', 'Lucas'])[1 + n % 10],
+       (ARRAY['Smith', 'Johnson', 'Williams', 'Brown', 'Jones', 'Garcia', 'Miller', 'Davis', 'Lopez', 'Wilson'])[1 + (n / 10) % 10],
+       '+1555' || lpad(n::text, 7, '0'),
+       true,
+       true,
+       now() - (n % 720) * interval '1 day',
+       now()
+FROM generate_series(1, :users) AS n
+ON CONFLICT (email) DO NOTHING;
+
+-- Every account has a default address, and a third have a second one
+INSERT INTO addresses (user_id, address_line1, address_line2, city, state, country, postal_code, is_default)
+SELECT id,
+       (100 + id % 9000) || ' ' || (ARRAY['Main St', 'Oak Ave', 'Pine Rd', 'Maple Dr', 'Cedar Ln'])[1 + id % 5],
+       CASE WHEN id % 4 = 0 THEN 'Apt ' || (1 + id % 40) END,
+       (ARRAY['San Francisco', 'Austin', 'Seattle', 'New York', 'Chicago', 'Denver'])[1 + id % 6],
+       (ARRAY['CA', 'TX', 'WA', 'NY', 'IL', 'CO'])[1 + id % 6],
+       'USA',
+       (ARRAY['94102', '73301', '98101', '10001', '60601', '80202'])[1 + id % 6],
+       true
+FROM users
+WHERE email LIKE 'loadtest-user-%';
+
+INSERT INTO addresses (user_id, address_line1, city, state, country, postal_code, is_default)
+SELECT id, (10 + id % 500) || ' Market St', 'Portland', 'OR', 'USA', '97201', false
+FROM users
+WHERE email LIKE 'loadtest-user-%' AND id % 3 = 0;
+
+ANALYZE users;
+ANALYZE addresses;
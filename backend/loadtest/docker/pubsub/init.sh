@@ -0,0 +1,31 @@
+#!/bin/sh
+# Creates the topics and subscriptions the services use on the Pub/Sub emulator.
+
+set -e
+
+BASE="http://${PUBSUB_EMULATOR_HOST}/v1/projects/${PUBSUB_PROJECT_ID}"
+
+until curl -sf -o /dev/null "$BASE/topics"; do
+    echo "Waiting for the Pub/Sub emulator..."
+    sleep 1
+done
+
+topic() {
+    curl -s -o /dev/null -X PUT "$BASE/topics/$1"
+}
+
+subscription() {
+    curl -s -o /dev/null -X PUT -H "Content-Type: application/json" \
+        -d "{\"topic\":\"projects/${PUBSUB_PROJECT_ID}/topics/$2\",\"ackDeadlineSeconds\":60}" \
+        "$BASE/subscriptions/$1"
+}
+
+topic order-created
+topic order-status-changed
+topic payment-processed
+
+subscription order-created-product-stock order-created
+subscription order-status-changed-product-stock order-status-changed
+subscription payment-processed-subscription payment-processed
+
+echo "Pub/Sub topics and subscriptions created"
@@ -0,0 +1,20 @@
+#!/bin/bash
+# Runs the same scenario with the services on platform threads and then on virtual threads, and
+# prints the per-endpoint difference.
+# Usage: scripts/compare-modes.sh [scenario.yml]
+#
+# Both runs use the same stack and data. The comparison fails if the services did not actually
+# switch mode, as reported on their /actuator/info.
+
+set -e
+
+cd "$(dirname "$0")/.."
+
+SCENARIO=${1:-scenarios/mixed.yml}
+NAME=$(basename "$SCENARIO" .yml)-$(date +%Y%m%d-%H%M%S)
+
+VIRTUAL_THREADS_ENABLED=false scripts/run.sh "$SCENARIO" "$NAME-platform"
+VIRTUAL_THREADS_ENABLED=true scripts/run.sh "$SCENARIO" "$NAME-virtual"
+
+java -jar target/loadtest.jar --compare "results/$NAME-platform.json" "results/$NAME-virtual.json" \
+    | tee "results/$NAME-comparison.txt"
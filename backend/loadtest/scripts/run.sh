@@ -0,0 +1,27 @@
+#!/bin/bash
+# Starts the load test stack, runs a scenario and writes its report under results/.
+# Usage: scripts/run.sh [scenario.yml] [report name]
+#
+#   scripts/run.sh scenarios/mixed.yml
+#   VIRTUAL_THREADS_ENABLED=true scripts/run.sh scenarios/mixed.yml mixed-virtual
+#
+# The stack is left running so runs can be repeated against the same data; services are
+# recreated on each run so configuration changes such as VIRTUAL_THREADS_ENABLED apply.
+# Tear it down with: docker compose down -v
+
+set -e
+
+cd "$(dirname "$0")/.."
+
+SCENARIO=${1:-scenarios/mixed.yml}
+NAME=${2:-$(basename "$SCENARIO" .yml)-$(date +%Y%m%d-%H%M%S)}
+
+echo "Building the load generator..."
+mvn -B -q clean package
+
+echo "Starting the stack (VIRTUAL_THREADS_ENABLED=${VIRTUAL_THREADS_ENABLED:-false})..."
+docker compose up -d --build --wait postgres redis pubsub
+docker compose up -d --build --wait --force-recreate user-service product-service order-service
+
+java ${LOADTEST_JAVA_OPTS:--Xmx2g} -jar target/loadtest.jar "$SCENARIO" \
+    --out "results/$NAME.json" --hgrm "results/$NAME-hgrm"
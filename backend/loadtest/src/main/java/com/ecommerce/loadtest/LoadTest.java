@@ -0,0 +1,81 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Runs a scenario against the services and reports per-endpoint latency and throughput.
+ *
+ * <pre>
+ * java -jar loadtest.jar &lt;scenario.yml&gt; [--out results/run.json] [--hgrm results/run-hgrm]
+ * java -jar loadtest.jar --compare results/platform.json results/virtual.json
+ * </pre>
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: java -jar loadtest.jar <scenario.yml> [--out <report.json>] [--hgrm <directory>]");
+            System.exit(2);
+        }
+
+        if ("--compare".equals(args[0])) {
+            if (args.length != 3) {
+                System.err.println("Usage: java -jar loadtest.jar --compare <baseline.json> <candidate.json>");
+                System.exit(2);
+            }
+            ModeComparison comparison = ModeComparison.load(Path.of(args[1]), Path.of(args[2]), new ObjectMapper());
+            String problem = comparison.problem();
+            if (problem != null) {
+                System.err.println("Cannot compare: " + problem);
+                System.exit(1);
+            }
+            comparison.print(System.out);
+            System.exit(0);
+        }
+
+        Path scenarioFile = Path.of(args[0]);
+        Path out = null;
+        Path hgrm = null;
+        for (int i = 1; i < args.length - 1; i += 2) {
+            switch (args[i]) {
+                case "--out" -> out = Path.of(args[i + 1]);
+                case "--hgrm" -> hgrm = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        Scenario scenario = Scenario.load(scenarioFile);
+        // Prices must round-trip exactly or the order service rejects them as changed
+        ObjectMapper objectMapper = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        Stats stats = new Stats();
+        ServiceClient client = new ServiceClient(objectMapper, stats, scenario.requestTimeout());
+        Workload workload = new Workload(scenario, client, stats);
+
+        System.err.printf("Loading a catalog sample of %d products%n", scenario.catalogSample());
+        workload.prepare();
+        Map<String, JsonNode> services = workload.executionModes();
+
+        Instant startedAt = Instant.now();
+        new OpenModelDriver(scenario, workload, stats).run();
+
+        Report report = new Report(scenario, stats, startedAt, services);
+        report.print(System.out);
+        if (out != null) {
+            report.writeJson(out, objectMapper);
+            System.err.println("Report written to " + out);
+        }
+        if (hgrm != null) {
+            report.writeDistributions(hgrm);
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Compares two run reports endpoint by endpoint, typically the same scenario with the services on
+ * platform and on virtual threads. Each report records the execution mode every service actually
+ * served the run with (from /actuator/info), and the comparison refuses runs that do not differ in
+ * it, so a flag that silently did nothing cannot produce a result.
+ */
+final class ModeComparison {
+
+    private final JsonNode baseline;
+    private final JsonNode candidate;
+
+    private ModeComparison(JsonNode baseline, JsonNode candidate) {
+        this.baseline = baseline;
+        this.candidate = candidate;
+    }
+
+    static ModeComparison load(Path baseline, Path candidate, ObjectMapper objectMapper) throws IOException {
+        return new ModeComparison(objectMapper.readTree(baseline.toFile()), objectMapper.readTree(candidate.toFile()));
+    }
+
+    // Null when the runs are comparable, otherwise why not
+    String problem() {
+        if (!baseline.path("scenario").asText().equals(candidate.path("scenario").asText())) {
+            return "the reports are from different scenarios";
+        }
+        JsonNode baselineServices = baseline.path("services");
+        JsonNode candidateServices = candidate.path("services");
+        if (baselineServices.isEmpty() || candidateServices.isEmpty()) {
+            return "a report has no service execution modes; rerun it with this version of the generator";
+        }
+        for (Iterator<String> names = baselineServices.fieldNames(); names.hasNext(); ) {
+            String service = names.next();
+            if (virtualThreads(baselineServices.path(service)) != virtualThreads(candidateServices.path(service))) {
+                return null;
+            }
+        }
+        return "no service ran in a different execution mode; check VIRTUAL_THREADS_ENABLED and that the images run Java 21";
+    }
+
+    void print(PrintStream out) {
+        out.printf("%nScenario %s: %s (baseline) vs %s%n", baseline.path("scenario").asText(),
+                modes(baseline), modes(candidate));
+        out.printf("Arrivals dropped: %d vs %d%n%n", baseline.path("dropped").asLong(), candidate.path("dropped").asLong());
+        out.printf("%-34s %9s %9s %7s %9s %9s %7s %9s %9s %7s %6s %6s%n", "endpoint",
+                "req/s", "req/s", "", "p50 ms", "p50 ms", "", "p99 ms", "p99 ms", "", "err", "err");
+
+        TreeSet<String> endpoints = new TreeSet<>();
+        baseline.path("endpoints").fieldNames().forEachRemaining(endpoints::add);
+        candidate.path("endpoints").fieldNames().forEachRemaining(endpoints::add);
+        for (String endpoint : endpoints) {
+            JsonNode before = baseline.path("endpoints").path(endpoint);
+            JsonNode after = candidate.path("endpoints").path(endpoint);
+            out.printf("%-34s", endpoint);
+            column(out, before.path("throughput").asDouble(), after.path("throughput").asDouble());
+            column(out, before.path("latencyMs").path("p50").asDouble(), after.path("latencyMs").path("p50").asDouble());
+            column(out, before.path("latencyMs").path("p99").asDouble(), after.path("latencyMs").path("p99").asDouble());
+            out.printf(" %6d %6d%n", errors(before), errors(after));
+        }
+    }
+
+    private static void column(PrintStream out, double before, double after) {
+        String change = before > 0 ? String.format("%+.0f%%", (after - before) / before * 100) : "";
+        out.printf(" %9.1f %9.1f %7s", before, after, change);
+    }
+
+    private static long errors(JsonNode endpoint) {
+        return endpoint.path("serverErrors").asLong() + endpoint.path("failures").asLong();
+    }
+
+    private static boolean virtualThreads(JsonNode service) {
+        return service.path("virtualThreads").asBoolean();
+    }
+
+    private static String modes(JsonNode report) {
+        StringBuilder modes = new StringBuilder();
+        for (Iterator<Map.Entry<String, JsonNode>> it = report.path("services").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> service = it.next();
+            modes.append(modes.isEmpty() ? "" : ", ").append(service.getKey())
+                    .append(virtualThreads(service.getValue()) ? " virtual" : " platform");
+        }
+        return modes.toString();
+    }
+}
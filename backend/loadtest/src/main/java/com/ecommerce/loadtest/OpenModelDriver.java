@@ -0,0 +1,81 @@
+package com.ecommerce.loadtest;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts transactions on a schedule that does not depend on how fast the services answer, as real
+ * arrivals don't. A slow service therefore builds up outstanding requests instead of quietly
+ * lowering the offered load. Arrivals beyond maxInFlight are dropped and counted, which means
+ * the generator itself has become the bottleneck and the run should be read with care.
+ */
+final class OpenModelDriver {
+
+    private final Scenario scenario;
+    private final Workload workload;
+    private final Stats stats;
+    private final Semaphore inFlight;
+
+    OpenModelDriver(Scenario scenario, Workload workload, Stats stats) {
+        this.scenario = scenario;
+        this.workload = workload;
+        this.stats = stats;
+        this.inFlight = new Semaphore(scenario.maxInFlight());
+    }
+
+    void run() throws InterruptedException {
+        for (Scenario.Phase phase : scenario.phases()) {
+            System.err.printf("Phase %s: %s at %.1f -> %.1f arrivals/s%s%n", phase.name(), phase.duration(),
+                    phase.rate(), phase.targetRate(), phase.record() ? "" : " (not recorded)");
+            stats.setRecording(phase.record());
+            runPhase(phase);
+        }
+
+        // Let outstanding requests finish so their latencies are counted
+        if (!inFlight.tryAcquire(scenario.maxInFlight(), scenario.requestTimeout().toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            System.err.printf("%d requests still outstanding at the end of the run%n",
+                    scenario.maxInFlight() - inFlight.availablePermits());
+        }
+        stats.setRecording(false);
+    }
+
+    private void runPhase(Scenario.Phase phase) {
+        long start = System.nanoTime();
+        long duration = phase.duration().toNanos();
+        long next = start;
+
+        while (next - start < duration) {
+            double rate = phase.rateAt((double) (next - start) / duration);
+            if (rate <= 0) {
+                // Idle phase; re-check the ramp every 100ms
+                next += TimeUnit.MILLISECONDS.toNanos(100);
+                sleepUntil(next);
+                continue;
+            }
+
+            sleepUntil(next);
+            if (inFlight.tryAcquire()) {
+                workload.run(workload.pick(), next).whenComplete((result, error) -> inFlight.release());
+            } else {
+                stats.recordDropped();
+            }
+            next += gap(rate);
+        }
+    }
+
+    private long gap(double rate) {
+        double seconds = scenario.arrival() == Scenario.Arrival.POISSON
+                ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) / rate
+                : 1 / rate;
+        return (long) (seconds * 1e9);
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Prints per-endpoint throughput and latency percentiles, and writes the same as JSON together
+ * with the execution mode each service reported. With an hgrm directory, each endpoint's full
+ * percentile distribution is written too, for plotting with HdrHistogram's tools.
+ */
+final class Report {
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+
+    private final Scenario scenario;
+    private final Stats stats;
+    private final Instant startedAt;
+    private final Map<String, JsonNode> services;
+
+    Report(Scenario scenario, Stats stats, Instant startedAt, Map<String, JsonNode> services) {
+        this.scenario = scenario;
+        this.stats = stats;
+        this.startedAt = startedAt;
+        this.services = services;
+    }
+
+    void print(PrintStream out) {
+        double seconds = stats.recordedSeconds();
+        out.printf("%nScenario %s, %.0f s recorded, %d arrivals dropped%n", scenario.name(), seconds, stats.dropped());
+        services.forEach((name, execution) -> out.printf("%s-service: %s threads, Java %s%n", name,
+                execution.path("virtualThreads").asBoolean() ? "virtual" : "platform", execution.path("javaVersion").asText("?")));
+        out.println();
+        out.printf("%-34s %9s %8s %6s %6s %6s %9s %9s %9s %9s %9s %9s%n", "endpoint", "count", "req/s",
+                "4xx", "5xx", "fail", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        stats.endpoints().forEach((name, endpoint) -> {
+            Histogram histogram = endpoint.histogram();
+            out.printf("%-34s %9d %8.1f %6d %6d %6d", name, histogram.getTotalCount(),
+                    histogram.getTotalCount() / seconds, endpoint.clientErrors(), endpoint.serverErrors(), endpoint.failures());
+            for (double percentile : PERCENTILES) {
+                out.printf(" %9.1f", histogram.getValueAtPercentile(percentile) / 1000.0);
+            }
+            out.printf(" %9.1f%n", histogram.getMaxValue() / 1000.0);
+        });
+    }
+
+    void writeJson(Path file, ObjectMapper objectMapper) throws IOException {
+        double seconds = stats.recordedSeconds();
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("scenario", scenario.name());
+        root.put("startedAt", startedAt.toString());
+        root.put("recordedSeconds", seconds);
+        root.put("dropped", stats.dropped());
+        root.putObject("services").setAll(services);
+        ObjectNode endpoints = root.putObject("endpoints");
+
+        for (Map.Entry<String, EndpointStats> entry : stats.endpoints().entrySet()) {
+            EndpointStats endpoint = entry.getValue();
+            Histogram histogram = endpoint.histogram();
+            ObjectNode node = endpoints.putObject(entry.getKey());
+            node.put("count", histogram.getTotalCount());
+            node.put("throughput", histogram.getTotalCount() / seconds);
+            node.put("ok", endpoint.ok());
+            node.put("clientErrors", endpoint.clientErrors());
+            node.put("serverErrors", endpoint.serverErrors());
+            node.put("failures", endpoint.failures());
+            ObjectNode latency = node.putObject("latencyMs");
+            latency.put("mean", histogram.getMean() / 1000.0);
+            for (double percentile : PERCENTILES) {
+                latency.put("p" + format(percentile), histogram.getValueAtPercentile(percentile) / 1000.0);
+            }
+            latency.put("max", histogram.getMaxValue() / 1000.0);
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+    }
+
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, EndpointStats> entry : stats.endpoints().entrySet()) {
+            String fileName = entry.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+            try (PrintStream out = new PrintStream(directory.resolve(fileName).toFile())) {
+                // Values are recorded in microseconds; scale to milliseconds
+                entry.getValue().histogram().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A load test scenario, read from YAML. See scenarios/mixed.yml for a documented example.
+ */
+public record Scenario(
+        String name,
+        Targets targets,
+        Users users,
+        int catalogSample,
+        Arrival arrival,
+        int maxInFlight,
+        Duration requestTimeout,
+        List<Phase> phases,
+        Map<String, Integer> mix,
+        List<String> searchTerms,
+        double paymentSuccessRate) {
+
+    public Scenario {
+        if (targets == null || targets.user() == null || targets.product() == null || targets.order() == null) {
+            throw new IllegalArgumentException("targets.user, targets.product and targets.order are required");
+        }
+        if (users == null || users.count() <= 0 || users.password() == null) {
+            throw new IllegalArgumentException("users.count and users.password are required");
+        }
+        if (phases == null || phases.isEmpty()) {
+            throw new IllegalArgumentException("At least one phase is required");
+        }
+        if (mix == null || mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix needs at least one transaction with a positive weight");
+        }
+        for (String transaction : mix.keySet()) {
+            if (!Workload.TRANSACTIONS.contains(transaction)) {
+                throw new IllegalArgumentException("Unknown transaction '" + transaction + "', expected one of " + Workload.TRANSACTIONS);
+            }
+        }
+        name = name != null ? name : "unnamed";
+        catalogSample = catalogSample > 0 ? catalogSample : 1000;
+        arrival = arrival != null ? arrival : Arrival.POISSON;
+        maxInFlight = maxInFlight > 0 ? maxInFlight : 1000;
+        requestTimeout = requestTimeout != null ? requestTimeout : Duration.ofSeconds(10);
+        searchTerms = searchTerms != null && !searchTerms.isEmpty() ? searchTerms : List.of("wireless", "smart", "pro");
+        paymentSuccessRate = paymentSuccessRate > 0 ? paymentSuccessRate : 0.9;
+    }
+
+    public static Scenario load(Path path) throws IOException {
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory())
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true);
+        return mapper.readValue(path.toFile(), Scenario.class);
+    }
+
+    /**
+     * Base URLs including the context path. pubsub is optional; when set, checkouts are followed
+     * by a payment-processed event on the emulator, standing in for the payment provider.
+     */
+    public record Targets(String user, String product, String order, String pubsub) {
+    }
+
+    /**
+     * The seeded accounts are loadtest-user-1..count@example.com. Authenticated traffic is spread
+     * over the first {@code active} of them, so sessions are reused the way returning customers do.
+     */
+    public record Users(int count, int active, String password) {
+
+        public Users {
+            active = active > 0 ? Math.min(active, count) : Math.min(1000, count);
+        }
+    }
+
+    /**
+     * Arrivals per second ramp linearly from rate to targetRate over the phase. Phases with
+     * record set to false warm the services up without counting towards the report.
+     */
+    public record Phase(String name, Duration duration, double rate, Double targetRate, Boolean record) {
+
+        public Phase {
+            if (duration == null || duration.isZero() || duration.isNegative() || rate < 0) {
+                throw new IllegalArgumentException("Phase '" + name + "' needs a positive duration and a rate");
+            }
+            targetRate = targetRate != null ? targetRate : rate;
+            record = record == null || record;
+        }
+
+        public double rateAt(double elapsedFraction) {
+            return rate + (targetRate - rate) * elapsedFraction;
+        }
+    }
+
+    public enum Arrival {
+        // Exponential gaps between arrivals, as from many independent users
+        POISSON,
+        // Evenly spaced arrivals
+        CONSTANT;
+
+        @JsonCreator
+        public static Arrival of(String value) {
+            return valueOf(value.toUpperCase());
+        }
+    }
+}
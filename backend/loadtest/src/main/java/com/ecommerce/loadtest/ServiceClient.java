@@ -0,0 +1,96 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Sends requests asynchronously and records each one under its endpoint name. Latency is taken
+ * from the start time the caller passes in, which for the first request of a transaction is the
+ * time it was scheduled to arrive, so queueing in the generator or the service is not hidden.
+ */
+final class ServiceClient {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Stats stats;
+    private final Duration requestTimeout;
+
+    ServiceClient(ObjectMapper objectMapper, Stats stats, Duration requestTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.objectMapper = objectMapper;
+        this.stats = stats;
+        this.requestTimeout = requestTimeout;
+    }
+
+    CompletableFuture<Response> get(String name, String url, String token, long startNanos) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).GET();
+        return send(name, request, token, Map.of(), startNanos);
+    }
+
+    CompletableFuture<Response> post(String name, String url, Object body, String token,
+                                     Map<String, String> headers, long startNanos) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        return send(name, request, token, headers, startNanos);
+    }
+
+    private CompletableFuture<Response> send(String name, HttpRequest.Builder request, String token,
+                                             Map<String, String> headers, long startNanos) {
+        request.timeout(requestTimeout).header("Accept", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        headers.forEach(request::header);
+
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    long latency = System.nanoTime() - startNanos;
+                    if (error != null) {
+                        stats.recordFailure(name, latency);
+                        throw error instanceof CompletionException ce ? ce : new CompletionException(error);
+                    }
+                    stats.record(name, latency, response.statusCode());
+                    return new Response(response.statusCode(), parse(response));
+                });
+    }
+
+    private JsonNode parse(HttpResponse<String> response) {
+        String body = response.body();
+        if (body == null || body.isEmpty() || response.statusCode() >= 300) {
+            return MissingNode.getInstance();
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            return MissingNode.getInstance();
+        }
+    }
+
+    record Response(int status, JsonNode body) {
+
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * All endpoint and transaction statistics of a run. Nothing is recorded while recording is off,
+ * which is how warm-up phases stay out of the report.
+ */
+final class Stats {
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean recording;
+    private long recordedNanos;
+    private long recordingSince;
+
+    void record(String name, long latencyNanos, int status) {
+        if (recording) {
+            endpoints.computeIfAbsent(name, k -> new EndpointStats()).record(latencyNanos, status);
+        }
+    }
+
+    void recordFailure(String name, long latencyNanos) {
+        if (recording) {
+            endpoints.computeIfAbsent(name, k -> new EndpointStats()).recordFailure(latencyNanos);
+        }
+    }
+
+    // An arrival that could not start because maxInFlight requests were already outstanding
+    void recordDropped() {
+        if (recording) {
+            dropped.increment();
+        }
+    }
+
+    synchronized void setRecording(boolean on) {
+        if (on && !recording) {
+            recordingSince = System.nanoTime();
+        } else if (!on && recording) {
+            recordedNanos += System.nanoTime() - recordingSince;
+        }
+        recording = on;
+    }
+
+    Map<String, EndpointStats> endpoints() {
+        return new TreeMap<>(endpoints);
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    synchronized double recordedSeconds() {
+        long nanos = recordedNanos + (recording ? System.nanoTime() - recordingSince : 0);
+        return nanos / 1e9;
+    }
+}
@@ -0,0 +1,295 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The user journeys the load test drives. Each transaction is a chain of requests, recorded per
+ * endpoint and as a whole under "tx &lt;name&gt;". Authenticated journeys reuse a session per user
+ * and log in first when the user has none yet.
+ */
+final class Workload {
+
+    static final List<String> TRANSACTIONS = List.of("browse", "search", "login", "checkout", "track", "account");
+
+    private static final int PAGE_SIZE = 20;
+
+    private final Scenario scenario;
+    private final ServiceClient client;
+    private final Stats stats;
+    private final List<String> names = new ArrayList<>();
+    private final int[] cumulativeWeights;
+    private final List<Product> catalog = new ArrayList<>();
+    private final Map<Integer, CompletableFuture<Session>> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> lastOrderByUser = new ConcurrentHashMap<>();
+    private int catalogPages = 1;
+
+    Workload(Scenario scenario, ServiceClient client, Stats stats) {
+        this.scenario = scenario;
+        this.client = client;
+        this.stats = stats;
+
+        List<Integer> weights = new ArrayList<>();
+        scenario.mix().forEach((name, weight) -> {
+            if (weight > 0) {
+                names.add(name);
+                weights.add(weight);
+            }
+        });
+        cumulativeWeights = new int[weights.size()];
+        int sum = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            sum += weights.get(i);
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    // Loads a sample of the catalog to check out from; runs before recording starts
+    void prepare() {
+        int pageSize = 100;
+        for (int page = 0; catalog.size() < scenario.catalogSample(); page++) {
+            ServiceClient.Response response = client.get("setup", scenario.targets().product()
+                    + "/products?page=" + page + "&size=" + pageSize, null, System.nanoTime()).join();
+            if (!response.ok()) {
+                throw new IllegalStateException("Could not load the catalog, product-service returned " + response.status());
+            }
+            if (page == 0) {
+                catalogPages = Math.max(1, response.body().path("totalElements").asInt() / PAGE_SIZE);
+            }
+            JsonNode content = response.body().path("content");
+            for (JsonNode product : content) {
+                if (product.path("isActive").asBoolean() && product.path("quantity").asInt() > 0) {
+                    catalog.add(new Product(product.path("id").asLong(), product.path("sku").asText(),
+                            product.path("name").asText(), product.path("price").decimalValue()));
+                }
+            }
+            if (content.size() < pageSize) {
+                break;
+            }
+        }
+        if (catalog.isEmpty()) {
+            throw new IllegalStateException("The catalog is empty; was the database seeded?");
+        }
+    }
+
+    // The execution mode each service reports on /actuator/info, recorded with the run
+    Map<String, JsonNode> executionModes() {
+        Map<String, String> targets = new LinkedHashMap<>();
+        targets.put("user", scenario.targets().user());
+        targets.put("product", scenario.targets().product());
+        targets.put("order", scenario.targets().order());
+
+        Map<String, JsonNode> modes = new LinkedHashMap<>();
+        targets.forEach((service, target) -> {
+            ServiceClient.Response response = client.get("setup", target + "/actuator/info", null, System.nanoTime()).join();
+            JsonNode execution = response.body().path("execution");
+            if (!response.ok() || execution.isMissingNode()) {
+                throw new IllegalStateException(service + "-service did not report its execution mode on /actuator/info");
+            }
+            modes.put(service, execution);
+        });
+        return modes;
+    }
+
+    String pick() {
+        int draw = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return names.get(i);
+            }
+        }
+        return names.get(names.size() - 1);
+    }
+
+    CompletableFuture<Void> run(String transaction, long intendedNanos) {
+        CompletableFuture<Boolean> result = switch (transaction) {
+            case "browse" -> browse(intendedNanos);
+            case "search" -> search(intendedNanos);
+            case "login" -> login(randomUser(), intendedNanos).thenApply(session -> true);
+            case "checkout" -> checkout(intendedNanos);
+            case "track" -> track(intendedNanos);
+            case "account" -> account(intendedNanos);
+            default -> throw new IllegalArgumentException("Unknown transaction " + transaction);
+        };
+        String name = "tx " + transaction;
+        return result.handle((ok, error) -> {
+            long latency = System.nanoTime() - intendedNanos;
+            if (error != null) {
+                stats.recordFailure(name, latency);
+            } else {
+                stats.record(name, latency, ok ? 200 : 500);
+            }
+            return null;
+        });
+    }
+
+    // Listing page, then one product from it, and sometimes its category
+    private CompletableFuture<Boolean> browse(long start) {
+        // Early pages are visited far more often than deep ones
+        int page = (int) (Math.pow(ThreadLocalRandom.current().nextDouble(), 3) * catalogPages);
+        String products = scenario.targets().product() + "/products";
+        return client.get("GET /products", products + "?page=" + page + "&size=" + PAGE_SIZE, null, start)
+                .thenCompose(list -> {
+                    JsonNode content = list.body().path("content");
+                    if (!list.ok() || content.isEmpty()) {
+                        return CompletableFuture.completedFuture(list.ok());
+                    }
+                    JsonNode product = content.get(ThreadLocalRandom.current().nextInt(content.size()));
+                    return client.get("GET /products/{id}", products + "/" + product.path("id").asLong(), null, System.nanoTime())
+                            .thenCompose(detail -> {
+                                long categoryId = detail.body().path("categoryId").asLong();
+                                if (!detail.ok() || categoryId == 0 || ThreadLocalRandom.current().nextInt(10) >= 3) {
+                                    return CompletableFuture.completedFuture(detail.ok());
+                                }
+                                return client.get("GET /products/category/{id}", products + "/category/" + categoryId
+                                        + "?size=" + PAGE_SIZE, null, System.nanoTime()).thenApply(ServiceClient.Response::ok);
+                            });
+                });
+    }
+
+    private CompletableFuture<Boolean> search(long start) {
+        List<String> terms = scenario.searchTerms();
+        String term = terms.get(ThreadLocalRandom.current().nextInt(terms.size()));
+        return client.get("GET /products/search", scenario.targets().product() + "/products/search?keyword="
+                + URLEncoder.encode(term, StandardCharsets.UTF_8) + "&size=" + PAGE_SIZE, null, start)
+                .thenApply(ServiceClient.Response::ok);
+    }
+
+    // Always a fresh login; the new session replaces the user's previous one
+    private CompletableFuture<Session> login(int user, long start) {
+        Map<String, String> body = Map.of("email", email(user), "password", scenario.users().password());
+        CompletableFuture<Session> session = client.post("POST /users/login", scenario.targets().user() + "/users/login",
+                body, null, Map.of(), start).thenApply(response -> {
+            if (!response.ok()) {
+                throw new IllegalStateException("Login failed with " + response.status());
+            }
+            return new Session(response.body().path("user").path("id").asLong(), email(user),
+                    response.body().path("token").asText());
+        });
+        sessions.put(user, session);
+        session.whenComplete((s, error) -> {
+            if (error != null) {
+                sessions.remove(user, session);
+            }
+        });
+        return session;
+    }
+
+    private CompletableFuture<Session> session(long start) {
+        int user = randomUser();
+        CompletableFuture<Session> existing = sessions.get(user);
+        return existing != null ? existing : login(user, start);
+    }
+
+    // Default address, then the order, then the payment provider's confirmation
+    private CompletableFuture<Boolean> checkout(long start) {
+        return session(start).thenCompose(session -> client.get("GET /users/me/addresses/default",
+                scenario.targets().user() + "/users/me/addresses/default", session.token(), System.nanoTime())
+                .thenCompose(address -> {
+                    Map<String, Object> order = order(session, address.ok() ? address.body().path("id").asLong() : 0);
+                    return client.post("POST /orders", scenario.targets().order() + "/orders", order, session.token(),
+                            Map.of("Idempotency-Key", UUID.randomUUID().toString()), System.nanoTime());
+                })
+                .thenCompose(created -> {
+                    if (!created.ok()) {
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    long orderId = created.body().path("id").asLong();
+                    lastOrderByUser.put(session.userId(), orderId);
+                    return scenario.targets().pubsub() != null ? publishPayment(orderId) : CompletableFuture.completedFuture(true);
+                }));
+    }
+
+    private Map<String, Object> order(Session session, long addressId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Map<String, Object>> items = new ArrayList<>();
+        int lines = 1 + random.nextInt(3);
+        for (int i = 0; i < lines; i++) {
+            Product product = catalog.get(random.nextInt(catalog.size()));
+            int quantity = 1 + random.nextInt(2);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", product.id());
+            item.put("productSku", product.sku());
+            item.put("productName", product.name());
+            item.put("quantity", quantity);
+            item.put("unitPrice", product.price());
+            items.add(item);
+        }
+
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("userId", session.userId());
+        order.put("userEmail", session.email());
+        order.put("items", items);
+        order.put("paymentMethod", "CREDIT_CARD");
+        if (addressId > 0) {
+            order.put("shippingAddressId", addressId);
+        } else {
+            order.put("shippingAddressLine1", "1 Load Test Way");
+            order.put("shippingCity", "San Francisco");
+            order.put("shippingState", "CA");
+            order.put("shippingCountry", "USA");
+            order.put("shippingPostalCode", "94102");
+        }
+        return order;
+    }
+
+    private CompletableFuture<Boolean> publishPayment(long orderId) {
+        boolean paid = ThreadLocalRandom.current().nextDouble() < scenario.paymentSuccessRate();
+        String event = "{\"orderId\":" + orderId + ",\"status\":\"" + (paid ? "SUCCEEDED" : "FAILED") + "\"}";
+        Map<String, Object> body = Map.of("messages", List.of(Map.of(
+                "data", Base64.getEncoder().encodeToString(event.getBytes(StandardCharsets.UTF_8)))));
+        return client.post("PUBLISH payment-processed", scenario.targets().pubsub() + "/topics/payment-processed:publish",
+                body, null, Map.of(), System.nanoTime()).thenApply(ServiceClient.Response::ok);
+    }
+
+    // Order history, then the most recent order
+    private CompletableFuture<Boolean> track(long start) {
+        return session(start).thenCompose(session -> client.get("GET /orders/user/{id}",
+                scenario.targets().order() + "/orders/user/" + session.userId() + "?page=0&size=10",
+                session.token(), System.nanoTime())
+                .thenCompose(history -> {
+                    Long orderId = lastOrderByUser.get(session.userId());
+                    JsonNode first = history.body().path("content").path(0);
+                    if (orderId == null && !first.isMissingNode()) {
+                        orderId = first.path("id").asLong();
+                    }
+                    if (!history.ok() || orderId == null) {
+                        return CompletableFuture.completedFuture(history.ok());
+                    }
+                    return client.get("GET /orders/{id}", scenario.targets().order() + "/orders/" + orderId,
+                            session.token(), System.nanoTime()).thenApply(ServiceClient.Response::ok);
+                }));
+    }
+
+    private CompletableFuture<Boolean> account(long start) {
+        return session(start).thenCompose(session -> client.get("GET /users/me/overview",
+                scenario.targets().user() + "/users/me/overview", session.token(), System.nanoTime())
+                .thenApply(ServiceClient.Response::ok));
+    }
+
+    private int randomUser() {
+        return 1 + ThreadLocalRandom.current().nextInt(scenario.users().active());
+    }
+
+    private static String email(int user) {
+        return "loadtest-user-" + user + "@example.com";
+    }
+
+    private record Product(long id, String sku, String name, BigDecimal price) {
+    }
+
+    private record Session(long userId, String email, String token) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.orderservice.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class ProductCatalogClient {
+
+    private final RestClient restClient;
+
+    public ProductCatalogClient(RestClient.Builder builder,
+                                @Value("${services.product.url:http://product-service:8082/api/v1}") String baseUrl,
+                                @Value("${services.product.connect-timeout:PT1S}") Duration connectTimeout,
+                                @Value("${services.product.read-timeout:PT2S}") Duration readTimeout) {
+        this.restClient = builder
+                .baseUrl(baseUrl)
+                .requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(connectTimeout)
+                        .withReadTimeout(readTimeout)))
+                .build();
+    }
+
+    // One round trip for any number of products (product-service caps a call at 500 ids)
+    public List<ProductSnapshot> getAvailability(Collection<Long> productIds) {
+        String ids = productIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        List<ProductSnapshot> snapshots = restClient.get()
+                .uri(uri -> uri.path("/products/availability").queryParam("ids", ids).build())
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<ProductSnapshot>>() {});
+        return snapshots != null ? snapshots : List.of();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductSnapshot {
+        private Long id;
+        private String sku;
+        private BigDecimal price;
+        private Integer quantity;
+        private Boolean isActive;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.orderservice.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+@Component
+public class UserAddressClient {
+
+    private final RestClient restClient;
+
+    public UserAddressClient(RestClient.Builder builder,
+                             @Value("${services.user.url:http://user-service:8081/api/v1}") String baseUrl,
+                             @Value("${services.user.connect-timeout:PT1S}") Duration connectTimeout,
+                             @Value("${services.user.read-timeout:PT2S}") Duration readTimeout) {
+        this.restClient = builder
+                .baseUrl(baseUrl)
+                .requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(connectTimeout)
+                        .withReadTimeout(readTimeout)))
+                .build();
+    }
+
+    // Runs as the caller, so user-service only returns addresses the caller owns
+    public Address getAddress(Long addressId, String authorization) {
+        return restClient.get()
+                .uri("/users/me/addresses/{id}", addressId)
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .retrieve()
+                .body(Address.class);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Address {
+        private Long id;
+        private String addressLine1;
+        private String addressLine2;
+        private String city;
+        private String state;
+        private String postalCode;
+        private String country;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.orderservice.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+@Component
+public class UserDirectoryClient {
+
+    private static final ParameterizedTypeReference<Map<Long, UserSummary>> SUMMARIES = new ParameterizedTypeReference<>() {
+    };
+
+    private final RestClient restClient;
+    private final String serviceToken;
+
+    public UserDirectoryClient(RestClient.Builder builder,
+                               @Value("${services.user.url:http://user-service:8081/api/v1}") String baseUrl,
+                               @Value("${services.user.connect-timeout:PT1S}") Duration connectTimeout,
+                               @Value("${services.user.read-timeout:PT2S}") Duration readTimeout,
+                               @Value("${services.user.service-token:}") String serviceToken) {
+        this.restClient = builder
+                .baseUrl(baseUrl)
+                .requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(connectTimeout)
+                        .withReadTimeout(readTimeout)))
+                .build();
+        this.serviceToken = serviceToken;
+    }
+
+    public boolean isConfigured() {
+        return !serviceToken.isBlank();
+    }
+
+    // Runs as this service, not the caller; unknown ids are missing from the result
+    public Map<Long, UserSummary> getUsers(Collection<Long> ids) {
+        return restClient.get()
+                .uri(uri -> uri.path("/users/internal/batch").queryParam("ids", ids.toArray()).build())
+                .header("X-Service-Token", serviceToken)
+                .retrieve()
+                .body(SUMMARIES);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UserSummary {
+        private Long id;
+        private String firstName;
+        private String lastName;
+        private String email;
+    }
+}
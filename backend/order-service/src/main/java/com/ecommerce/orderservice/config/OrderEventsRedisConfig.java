@@ -0,0 +1,22 @@
+package com.ecommerce.orderservice.config;
+
+import com.ecommerce.orderservice.service.OrderEventHub;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class OrderEventsRedisConfig {
+
+    // One subscription per node; OrderEventHub fans messages out to its local SSE connections
+    @Bean
+    public RedisMessageListenerContainer orderEventsListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                      OrderEventHub orderEventHub) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(orderEventHub, new ChannelTopic(orderEventHub.getChannel()));
+        return container;
+    }
+}
@@ -1,17 +1,35 @@
 package com.ecommerce.orderservice.controller;
 
+import com.ecommerce.orderservice.config.AsyncTimeoutConfig;
 import com.ecommerce.orderservice.dto.CreateOrderRequest;
 import com.ecommerce.orderservice.dto.OrderDTO;
+import com.ecommerce.orderservice.dto.OrderEventDTO;
 import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.service.IdempotencyService;
+import com.ecommerce.orderservice.service.OrderCustomerEnricher;
+import com.ecommerce.orderservice.service.OrderEventHub;
+import com.ecommerce.orderservice.service.OrderExportService;
+import com.ecommerce.orderservice.service.OrderPricingValidator;
 import com.ecommerce.orderservice.service.OrderService;
+import com.ecommerce.orderservice.service.ShippingAddressResolver;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/orders")
@@ -21,12 +39,33 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final IdempotencyService idempotencyService;
+    private final OrderPricingValidator orderPricingValidator;
+    private final ShippingAddressResolver shippingAddressResolver;
+    private final OrderEventHub orderEventHub;
+    private final OrderCustomerEnricher orderCustomerEnricher;
+
+    @Value("${orders.export.timeout:PT30M}")
+    private Duration exportTimeout;
 
     @PostMapping
-    public ResponseEntity<OrderDTO> createOrder(@Valid @RequestBody CreateOrderRequest request) {
+    public ResponseEntity<OrderDTO> createOrder(
+            @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
         log.info("Creating order for user: {}", request.getUserId());
-        OrderDTO order = orderService.createOrder(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(order);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            OrderDTO order = validateAndCreate(request, authorization);
+            return ResponseEntity.status(HttpStatus.CREATED).body(order);
+        }
+
+        // Hashed before the saved address is filled in, so a retry with the same id matches
+        IdempotencyService.Result result = idempotencyService.execute(
+                request.getUserId(), idempotencyKey, request, () -> validateAndCreate(request, authorization));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                .body(result.order());
     }
 
     @GetMapping("/{id}")
@@ -36,6 +75,22 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
 
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderEvents(@PathVariable Long id) {
+        log.info("Opening event stream for order: {}", id);
+        return orderEventHub.subscribeToOrder(id, () -> {
+            OrderDTO order = orderService.getOrderById(id);
+            return new OrderEventDTO("SNAPSHOT", order.getId(), order.getOrderNumber(), order.getUserId(),
+                    order.getStatus(), order.getTrackingNumber(), LocalDateTime.now());
+        });
+    }
+
+    @GetMapping(value = "/user/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamUserOrderEvents(@PathVariable Long userId) {
+        log.info("Opening event stream for user: {}", userId);
+        return orderEventHub.subscribeToUser(userId);
+    }
+
     @GetMapping("/number/{orderNumber}")
     public ResponseEntity<OrderDTO> getOrderByOrderNumber(@PathVariable String orderNumber) {
         log.info("Fetching order by order number: {}", orderNumber);
@@ -58,6 +113,7 @@ public class OrderController {
             Pageable pageable) {
         log.info("Fetching orders with status: {}", status);
         Page<OrderDTO> orders = orderService.getOrdersByStatus(status, pageable);
+        orderCustomerEnricher.fillMissingEmails(orders.getContent());
         return ResponseEntity.ok(orders);
     }
 
@@ -65,9 +121,34 @@ public class OrderController {
     public ResponseEntity<Page<OrderDTO>> getAllOrders(Pageable pageable) {
         log.info("Fetching all orders");
         Page<OrderDTO> orders = orderService.getAllOrders(pageable);
+        orderCustomerEnricher.fillMissingEmails(orders.getContent());
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "CSV") OrderExportService.ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        log.info("Exporting orders from {} to {} as {}", startDate, endDate, format);
+        // Large ranges stream for minutes; other async requests keep the default timeout
+        request.setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE, exportTimeout);
+
+        String filename = "orders-" + startDate.toLocalDate() + "-" + endDate.toLocalDate()
+                + (format == OrderExportService.ExportFormat.CSV ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : format == OrderExportService.ExportFormat.CSV ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+
+        StreamingResponseBody body = out -> orderExportService.export(startDate, endDate, format, gzip, out);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
     @PatchMapping("/{id}/status")
     public ResponseEntity<OrderDTO> updateOrderStatus(
             @PathVariable Long id,
@@ -97,4 +178,12 @@ public class OrderController {
         OrderDTO order = orderService.cancelOrder(id, reason, cancelledBy);
         return ResponseEntity.ok(order);
     }
+
+    // Validation runs before the order transaction so no DB connection is held across the catalog
+    // and address-book calls
+    private OrderDTO validateAndCreate(CreateOrderRequest request, String authorization) {
+        shippingAddressResolver.resolve(request, authorization);
+        orderPricingValidator.validate(request);
+        return orderService.createOrder(request);
+    }
 }
@@ -0,0 +1,58 @@
+package com.ecommerce.orderservice.controller;
+
+import com.ecommerce.orderservice.dto.ProductSalesDTO;
+import com.ecommerce.orderservice.dto.SalesSummaryDTO;
+import com.ecommerce.orderservice.service.SalesStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/orders/stats")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+@Slf4j
+public class SalesStatsController {
+
+    private final SalesStatsService salesStatsService;
+
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<ProductSalesDTO> getProductSales(@PathVariable Long productId) {
+        return ResponseEntity.ok(salesStatsService.getProductSales(productId));
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<List<ProductSalesDTO>> getProductSales(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(salesStatsService.getProductSales(ids));
+    }
+
+    @GetMapping("/daily")
+    public ResponseEntity<List<SalesSummaryDTO>> getDailySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesStatsService.getDailySales(from, to));
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<List<SalesSummaryDTO>> getStatusTotals() {
+        return ResponseEntity.ok(salesStatsService.getStatusTotals());
+    }
+
+    // Needs the token from orders.stats.rebuild-token; disabled when none is configured
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuild(@RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!salesStatsService.isRebuildAllowed(token)) {
+            log.warn("Rejected sales rollup rebuild without a valid admin token");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        log.info("Rebuilding sales rollups");
+        return ResponseEntity.ok(salesStatsService.rebuild());
+    }
+}
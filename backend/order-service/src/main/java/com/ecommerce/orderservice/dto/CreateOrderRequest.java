@@ -1,9 +1,11 @@
 package com.ecommerce.orderservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 import java.util.List;
@@ -21,31 +23,39 @@ public class CreateOrderRequest {
     private String userEmail;
 
     @NotEmpty(message = "Order must have at least one item")
-    private List<OrderItemRequest> items;
+    private List<@Valid OrderItemRequest> items;
 
     @NotBlank(message = "Payment method is required")
     private String paymentMethod;
 
-    // Shipping address
-    @NotBlank(message = "Shipping address is required")
+    // Shipping address: either an address-book id or the full address
+    private Long shippingAddressId;
+
     private String shippingAddressLine1;
 
     private String shippingAddressLine2;
 
-    @NotBlank(message = "City is required")
     private String shippingCity;
 
-    @NotBlank(message = "State is required")
     private String shippingState;
 
-    @NotBlank(message = "Country is required")
     private String shippingCountry;
 
-    @NotBlank(message = "Postal code is required")
     private String shippingPostalCode;
 
     private String notes;
 
+    @JsonIgnore
+    @AssertTrue(message = "Shipping address or shippingAddressId is required")
+    public boolean isShippingAddressProvided() {
+        return shippingAddressId != null || (isPresent(shippingAddressLine1) && isPresent(shippingCity)
+                && isPresent(shippingState) && isPresent(shippingCountry) && isPresent(shippingPostalCode));
+    }
+
+    private static boolean isPresent(String value) {
+        return value != null && !value.isBlank();
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -69,7 +79,5 @@ public class CreateOrderRequest {
         private BigDecimal unitPrice;
 
         private BigDecimal discountAmount;
-
-        private BigDecimal taxAmount;
     }
 }
@@ -0,0 +1,22 @@
+package com.ecommerce.orderservice.dto;
+
+import com.ecommerce.orderservice.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEventDTO {
+
+    private String type;
+    private Long orderId;
+    private String orderNumber;
+    private Long userId;
+    private Order.OrderStatus status;
+    private String trackingNumber;
+    private LocalDateTime occurredAt;
+}
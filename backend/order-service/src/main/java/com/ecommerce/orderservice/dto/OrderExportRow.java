@@ -0,0 +1,30 @@
+package com.ecommerce.orderservice.dto;
+
+import com.ecommerce.orderservice.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderExportRow {
+
+    private Long id;
+    private String orderNumber;
+    private Long userId;
+    private String userEmail;
+    private Order.OrderStatus status;
+    private BigDecimal subtotal;
+    private BigDecimal taxAmount;
+    private BigDecimal shippingAmount;
+    private BigDecimal discountAmount;
+    private BigDecimal totalAmount;
+    private String paymentMethod;
+    private String paymentStatus;
+    private String shippingCountry;
+    private LocalDateTime createdAt;
+}
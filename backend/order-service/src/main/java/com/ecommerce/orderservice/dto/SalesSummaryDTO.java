@@ -0,0 +1,21 @@
+package com.ecommerce.orderservice.dto;
+
+import com.ecommerce.orderservice.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesSummaryDTO {
+
+    // Null for all-time per-status totals
+    private LocalDate salesDate;
+    private Order.OrderStatus status;
+    private Long orderCount;
+    private BigDecimal revenue;
+}
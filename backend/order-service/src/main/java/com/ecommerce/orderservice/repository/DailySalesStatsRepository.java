@@ -0,0 +1,26 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.DailySalesStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySalesStatsRepository extends JpaRepository<DailySalesStats, DailySalesStats.Key> {
+
+    @Query("SELECT d FROM DailySalesStats d WHERE d.id.salesDate BETWEEN :from AND :to ORDER BY d.id.salesDate, d.id.status")
+    List<DailySalesStats> findByDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Queues a change to one (day, status) bucket and its status total for the applier
+    @Modifying
+    @Query(value = "INSERT INTO sales_stats_deltas (sales_date, status, order_count, revenue) " +
+            "VALUES (:salesDate, :status, :orders, :revenue)", nativeQuery = true)
+    void appendDelta(@Param("salesDate") LocalDate salesDate, @Param("status") String status,
+                     @Param("orders") long orders, @Param("revenue") BigDecimal revenue);
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.dto.OrderExportRow;
+import com.ecommerce.orderservice.entity.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Read access to orders moved into the archive tables by the order archival job
+public interface OrderArchiveRepository {
+
+    Optional<Order> findArchivedById(Long id);
+
+    Optional<Order> findArchivedByOrderNumber(String orderNumber);
+
+    // A user's live and archived orders as one page, newest first unless the page asks for a sort
+    Page<Order> findByUserIdIncludingArchive(Long userId, Pageable pageable);
+
+    // Forward-only cursor over live and archived orders; must be consumed inside a read-only transaction
+    Stream<OrderExportRow> streamForExport(LocalDateTime startDate, LocalDateTime endDate);
+}
@@ -0,0 +1,183 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.dto.OrderExportRow;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maps archived rows onto the regular entities and detaches them immediately, so callers get a
+ * read-only snapshot that can never be flushed back into the live tables. Listings and exports
+ * read both tables with UNION ALL, the same way rebuild_sales_stats does.
+ */
+public class OrderArchiveRepositoryImpl implements OrderArchiveRepository {
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "orderNumber", "order_number",
+            "status", "status",
+            "totalAmount", "total_amount",
+            "createdAt", "created_at",
+            "updatedAt", "updated_at");
+
+    private static final String USER_ORDERS =
+            "(SELECT id, order_number, status, total_amount, created_at, updated_at, false AS archived " +
+            "FROM orders WHERE user_id = :userId " +
+            "UNION ALL SELECT id, order_number, status, total_amount, created_at, updated_at, true " +
+            "FROM orders_archive WHERE user_id = :userId) o";
+
+    private static final String EXPORT_COLUMNS = "id, order_number, user_id, user_email, status, subtotal, tax_amount, " +
+            "shipping_amount, discount_amount, total_amount, payment_method, payment_status, shipping_country, created_at";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Order> findArchivedById(Long id) {
+        return findArchived("SELECT * FROM orders_archive WHERE id = :value", id);
+    }
+
+    @Override
+    public Optional<Order> findArchivedByOrderNumber(String orderNumber) {
+        return findArchived("SELECT * FROM orders_archive WHERE order_number = :value", orderNumber);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Page<Order> findByUserIdIncludingArchive(Long userId, Pageable pageable) {
+        String sql = "SELECT id, archived FROM " + USER_ORDERS + orderBy(pageable.getSort());
+        var query = entityManager.createNativeQuery(sql).setParameter("userId", userId);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        List<Object[]> keys = query.getResultList();
+
+        List<Long> liveIds = new ArrayList<>();
+        List<Long> archivedIds = new ArrayList<>();
+        for (Object[] key : keys) {
+            Long id = ((Number) key[0]).longValue();
+            (Boolean.TRUE.equals(key[1]) ? archivedIds : liveIds).add(id);
+        }
+
+        Map<Long, Order> byId = new HashMap<>();
+        if (!liveIds.isEmpty()) {
+            entityManager.createQuery("SELECT o FROM Order o WHERE o.id IN :ids", Order.class)
+                    .setParameter("ids", liveIds)
+                    .getResultList()
+                    .forEach(order -> byId.put(order.getId(), order));
+        }
+        loadArchived("SELECT * FROM orders_archive WHERE id IN (:value)", archivedIds)
+                .forEach(order -> byId.put(order.getId(), order));
+
+        List<Order> content = keys.stream()
+                .map(key -> byId.get(((Number) key[0]).longValue()))
+                .toList();
+        long total = ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM " + USER_ORDERS)
+                .setParameter("userId", userId)
+                .getSingleResult()).longValue();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<OrderExportRow> streamForExport(LocalDateTime startDate, LocalDateTime endDate) {
+        String sql = "SELECT " + EXPORT_COLUMNS + " FROM orders WHERE created_at >= :startDate AND created_at < :endDate " +
+                "UNION ALL SELECT " + EXPORT_COLUMNS + " FROM orders_archive " +
+                "WHERE created_at >= :startDate AND created_at < :endDate ORDER BY id";
+        Stream<Object[]> rows = entityManager.createNativeQuery(sql)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 2000)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHEABLE, false)
+                .getResultStream();
+        return rows.map(OrderArchiveRepositoryImpl::toExportRow);
+    }
+
+    private Optional<Order> findArchived(String sql, Object value) {
+        return loadArchived(sql, value).stream().findFirst();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Order> loadArchived(String sql, Object value) {
+        if (value instanceof List<?> ids && ids.isEmpty()) {
+            return List.of();
+        }
+        List<Order> orders = entityManager.createNativeQuery(sql, Order.class)
+                .setParameter("value", value)
+                .getResultList();
+        if (orders.isEmpty()) {
+            return orders;
+        }
+
+        List<Long> orderIds = orders.stream().map(Order::getId).toList();
+        List<OrderItem> items = entityManager.createNativeQuery(
+                        "SELECT * FROM order_items_archive WHERE order_id IN (:orderIds) ORDER BY id", OrderItem.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+        Map<Long, List<OrderItem>> itemsByOrder = items.stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+
+        items.forEach(entityManager::detach);
+        for (Order order : orders) {
+            entityManager.detach(order);
+            order.setItems(new ArrayList<>(itemsByOrder.getOrDefault(order.getId(), List.of())));
+            order.setStatusHistory(new ArrayList<>());
+        }
+        return orders;
+    }
+
+    // Unsorted pages list the newest orders first; id breaks ties so pages never overlap
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return " ORDER BY o.created_at DESC, o.id DESC";
+        }
+        List<String> terms = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Orders cannot be sorted by " + order.getProperty());
+            }
+            terms.add("o." + column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        if (sort.getOrderFor("id") == null) {
+            terms.add("o.id DESC");
+        }
+        return " ORDER BY " + String.join(", ", terms);
+    }
+
+    private static OrderExportRow toExportRow(Object[] row) {
+        return new OrderExportRow(
+                ((Number) row[0]).longValue(),
+                (String) row[1],
+                ((Number) row[2]).longValue(),
+                (String) row[3],
+                Order.OrderStatus.valueOf((String) row[4]),
+                (BigDecimal) row[5],
+                (BigDecimal) row[6],
+                (BigDecimal) row[7],
+                (BigDecimal) row[8],
+                (BigDecimal) row[9],
+                (String) row[10],
+                (String) row[11],
+                (String) row[12],
+                row[13] instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) row[13]);
+    }
+}
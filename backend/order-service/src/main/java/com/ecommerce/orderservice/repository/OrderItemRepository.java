@@ -13,9 +13,7 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     List<OrderItem> findByOrderId(Long orderId);
 
-    @Query("SELECT oi FROM OrderItem oi WHERE oi.productId = :productId")
-    List<OrderItem> findByProductId(@Param("productId") Long productId);
-
-    @Query("SELECT SUM(oi.quantity) FROM OrderItem oi WHERE oi.productId = :productId")
-    Long getTotalQuantityByProductId(@Param("productId") Long productId);
+    // Projection of (orderId, productId, quantity, totalPrice) used to release stock without loading entities
+    @Query("SELECT oi.order.id, oi.productId, oi.quantity, oi.totalPrice FROM OrderItem oi WHERE oi.order.id IN :orderIds")
+    List<Object[]> findStockLinesByOrderIds(@Param("orderIds") List<Long> orderIds);
 }
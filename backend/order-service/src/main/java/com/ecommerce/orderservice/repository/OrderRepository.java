@@ -1,22 +1,49 @@
 package com.ecommerce.orderservice.repository;
 
 import com.ecommerce.orderservice.entity.Order;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderArchiveRepository {
 
     Optional<Order> findByOrderNumber(String orderNumber);
 
+    // Row-locked load for read-modify-write paths, so they serialize with the set-based updates below
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+    // Closed orders older than the archive horizon live in orders_archive; reads fall through to it
+    default Optional<Order> findByIdIncludingArchive(Long id) {
+        return findById(id).or(() -> findArchivedById(id));
+    }
+
+    default Optional<Order> findByOrderNumberIncludingArchive(String orderNumber) {
+        return findByOrderNumber(orderNumber).or(() -> findArchivedByOrderNumber(orderNumber));
+    }
+
+    @Query(value = "SELECT archive_closed_orders(:cutoff, :batchSize)", nativeQuery = true)
+    int archiveClosedOrders(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
+    @Query(value = "SELECT create_order_partitions(CAST(:startMonth AS DATE), CAST(:endMonth AS DATE))", nativeQuery = true)
+    int createPartitions(@Param("startMonth") LocalDate startMonth, @Param("endMonth") LocalDate endMonth);
+
+    @Query(value = "SELECT drop_empty_order_partitions(CAST(:cutoff AS DATE))", nativeQuery = true)
+    int dropEmptyPartitions(@Param("cutoff") LocalDate cutoff);
+
     Page<Order> findByUserId(Long userId, Pageable pageable);
 
     Page<Order> findByStatus(Order.OrderStatus status, Pageable pageable);
@@ -38,7 +65,66 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             Pageable pageable
     );
 
-    List<Order> findByStatusAndCreatedAtBefore(Order.OrderStatus status, LocalDateTime dateTime);
+    // Keyset page of stale order ids; callers pass the last id seen and a PageRequest.ofSize(n)
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.createdAt < :cutoff AND o.id > :afterId ORDER BY o.id")
+    List<Long> findIdsByStatusAndCreatedAtBefore(
+            @Param("status") Order.OrderStatus status,
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    // Set-based expiry. The UPDATE waits on rows locked by findByIdForUpdate and re-checks the status
+    // once they commit, so an order confirmed or cancelled in the meantime is skipped, not overwritten
+    @Query(value = "UPDATE orders SET status = 'CANCELLED', cancelled_at = :now, cancellation_reason = :reason, updated_at = :now " +
+            "WHERE id IN (:ids) AND status = 'PENDING' RETURNING id, order_number, CAST(created_at AS DATE), total_amount, user_id, tracking_number", nativeQuery = true)
+    List<Object[]> expirePendingOrders(
+            @Param("ids") List<Long> ids,
+            @Param("reason") String reason,
+            @Param("now") LocalDateTime now
+    );
+
+    @Modifying
+    @Query(value = "INSERT INTO order_status_history (order_id, status, notes, changed_by, created_at) " +
+            "SELECT id, 'CANCELLED', :notes, :changedBy, :now FROM orders WHERE id IN (:ids)", nativeQuery = true)
+    int insertCancelledHistory(
+            @Param("ids") List<Long> ids,
+            @Param("notes") String notes,
+            @Param("changedBy") String changedBy,
+            @Param("now") LocalDateTime now
+    );
+
+    // Marks orders paid and confirms those still PENDING; returns the old status of each touched row.
+    // FOR UPDATE waits for findByIdForUpdate writers and then reads what they committed
+    @Query(value = "WITH target AS (SELECT id, status FROM orders WHERE id IN (:ids) FOR UPDATE) " +
+            "UPDATE orders o SET payment_status = 'PAID', updated_at = :now, " +
+            "status = CASE WHEN t.status = 'PENDING' THEN 'CONFIRMED' ELSE o.status END " +
+            "FROM target t WHERE o.id = t.id AND o.payment_status IS DISTINCT FROM 'PAID' " +
+            "RETURNING o.id, o.order_number, o.user_id, t.status, o.status, CAST(o.created_at AS DATE), o.total_amount, o.tracking_number",
+            nativeQuery = true)
+    List<Object[]> markOrdersPaid(
+            @Param("ids") List<Long> ids,
+            @Param("now") LocalDateTime now
+    );
+
+    @Modifying
+    @Query(value = "UPDATE orders SET payment_status = 'FAILED', updated_at = :now " +
+            "WHERE id IN (:ids) AND status = 'PENDING' AND payment_status IS DISTINCT FROM 'PAID'", nativeQuery = true)
+    int markPaymentsFailed(
+            @Param("ids") List<Long> ids,
+            @Param("now") LocalDateTime now
+    );
+
+    @Modifying
+    @Query(value = "INSERT INTO order_status_history (order_id, status, notes, changed_by, created_at) " +
+            "SELECT id, :status, :notes, :changedBy, :now FROM orders WHERE id IN (:ids)", nativeQuery = true)
+    int insertStatusHistory(
+            @Param("ids") List<Long> ids,
+            @Param("status") String status,
+            @Param("notes") String notes,
+            @Param("changedBy") String changedBy,
+            @Param("now") LocalDateTime now
+    );
 
     @Query("SELECT COUNT(o) FROM Order o WHERE o.userId = :userId AND o.status = :status")
     long countByUserIdAndStatus(@Param("userId") Long userId, @Param("status") Order.OrderStatus status);
@@ -0,0 +1,25 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.ProcessedMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessage, String> {
+
+    // Records the keys in one statement and returns only those not seen before
+    @Query(value = "INSERT INTO processed_messages (message_id, processed_at) " +
+            "SELECT id, CURRENT_TIMESTAMP FROM unnest(CAST(:ids AS VARCHAR[])) AS id " +
+            "ON CONFLICT (message_id) DO NOTHING RETURNING message_id", nativeQuery = true)
+    List<String> claim(@Param("ids") String ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM processed_messages WHERE processed_at < :cutoff", nativeQuery = true)
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
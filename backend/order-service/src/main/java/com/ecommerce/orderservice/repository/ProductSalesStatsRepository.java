@@ -0,0 +1,28 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.ProductSalesStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface ProductSalesStatsRepository extends JpaRepository<ProductSalesStats, Long> {
+
+    // Queues a change to one product's units sold for the applier
+    @Modifying
+    @Query(value = "INSERT INTO sales_stats_deltas (product_id, units, revenue) " +
+            "VALUES (:productId, :units, :revenue)", nativeQuery = true)
+    void appendDelta(@Param("productId") Long productId, @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    @Query(value = "SELECT apply_sales_stats_deltas(:batchSize)", nativeQuery = true)
+    int applyDeltas(@Param("batchSize") int batchSize);
+
+    // One row: product, daily and status row counts of the rebuilt rollups
+    @Query(value = "SELECT products, daily, statuses FROM rebuild_sales_stats()", nativeQuery = true)
+    List<Object[]> rebuildFromHistory();
+}
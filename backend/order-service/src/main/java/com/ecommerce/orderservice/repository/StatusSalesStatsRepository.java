@@ -0,0 +1,10 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.StatusSalesStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StatusSalesStatsRepository extends JpaRepository<StatusSalesStats, Order.OrderStatus> {
+}
@@ -0,0 +1,263 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates order creation by Idempotency-Key. Completed responses live in a bounded local
+ * cache and in Redis; a Redis SETNX marker claims a key while it is in flight, and duplicates
+ * arriving meanwhile wait for the first request instead of running the transaction again.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final String KEY_PREFIX = "idempotency:orders:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper canonicalMapper;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, StoredResponse> completed;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${orders.idempotency.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${orders.idempotency.in-flight-ttl:PT1M}")
+    private Duration inFlightTtl;
+
+    @Value("${orders.idempotency.wait-timeout:PT10S}")
+    private Duration waitTimeout;
+
+    public IdempotencyService(StringRedisTemplate redisTemplate,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${orders.idempotency.local-max-size:10000}") long localMaxSize,
+                              @Value("${orders.idempotency.local-ttl:PT10M}") Duration localTtl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.canonicalMapper = canonicalMapper(objectMapper);
+        this.meterRegistry = meterRegistry;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "orders.idempotency.local");
+        meterRegistry.gaugeMapSize("orders.idempotency.in.flight", Tags.empty(), inFlight);
+    }
+
+    public Result execute(Long userId, String idempotencyKey, Object request, Supplier<OrderDTO> action) {
+        String key = userId + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+
+        StoredResponse local = completed.getIfPresent(key);
+        if (local != null) {
+            record("local_hit");
+            return replay(local, fingerprint);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            record("waited");
+            return replay(await(existing), fingerprint);
+        }
+
+        try {
+            if (!claim(key, fingerprint)) {
+                StoredResponse remote = awaitRemote(key);
+                completed.put(key, remote);
+                mine.complete(remote);
+                record("redis_hit");
+                return replay(remote, fingerprint);
+            }
+
+            record("miss");
+            OrderDTO response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                release(key);
+                mine.completeExceptionally(e);
+                throw e;
+            }
+
+            StoredResponse stored = new StoredResponse(fingerprint, response);
+            store(key, stored);
+            completed.put(key, stored);
+            mine.complete(stored);
+            return new Result(response, false);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // SETNX an in-flight marker; Redis being unavailable degrades to node-local dedupe
+    private boolean claim(String key, String fingerprint) {
+        try {
+            Boolean claimed = redisTemplate.opsForValue()
+                    .setIfAbsent(KEY_PREFIX + key, "PENDING:" + fingerprint, inFlightTtl);
+            return !Boolean.FALSE.equals(claimed);
+        } catch (Exception e) {
+            log.warn("Redis unavailable for idempotency claim, continuing with local dedupe only", e);
+            return true;
+        }
+    }
+
+    private StoredResponse awaitRemote(String key) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        long backoffMillis = 20;
+        while (true) {
+            String value;
+            try {
+                value = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            } catch (Exception e) {
+                // Another node holds the key, so running the action here could duplicate the order
+                log.warn("Redis unavailable while waiting for idempotency key {}", key, e);
+                record("unavailable");
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Idempotency store unavailable, please retry");
+            }
+            if (value == null) {
+                // The other node failed and released the key; let the client retry cleanly
+                record("conflict");
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Previous request with this Idempotency-Key failed, retry");
+            }
+            if (!value.startsWith("PENDING:")) {
+                return deserialize(value);
+            }
+            if (System.nanoTime() > deadline) {
+                record("conflict");
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+            }
+            sleep(backoffMillis);
+            backoffMillis = Math.min(backoffMillis * 2, 500);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> future) {
+        try {
+            return future.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            record("conflict");
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for idempotent request", e);
+        }
+    }
+
+    private void store(String key, StoredResponse stored) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, objectMapper.writeValueAsString(stored), ttl);
+        } catch (Exception e) {
+            log.warn("Failed to store idempotent response for key {}", key, e);
+        }
+    }
+
+    private void release(String key) {
+        try {
+            redisTemplate.delete(KEY_PREFIX + key);
+        } catch (Exception e) {
+            log.warn("Failed to release idempotency key {}", key, e);
+        }
+    }
+
+    private StoredResponse deserialize(String value) {
+        try {
+            return objectMapper.readValue(value, StoredResponse.class);
+        } catch (Exception e) {
+            throw new RuntimeException("Corrupt idempotency record", e);
+        }
+    }
+
+    private Result replay(StoredResponse stored, String fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            record("mismatch");
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used with a different request body");
+        }
+        return new Result(stored.response(), true);
+    }
+
+    // SHA-256 of the request in a canonical JSON form: sorted properties and normalized decimals
+    String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonicalMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint idempotent request", e);
+        }
+    }
+
+    private static ObjectMapper canonicalMapper(ObjectMapper objectMapper) {
+        SimpleModule decimals = new SimpleModule();
+        decimals.addSerializer(BigDecimal.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(BigDecimal value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                gen.writeString(value.stripTrailingZeros().toPlainString());
+            }
+        });
+        return objectMapper.copy()
+                .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+                .registerModule(decimals);
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter("orders.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for idempotent request", e);
+        }
+    }
+
+    public record StoredResponse(String fingerprint, OrderDTO response) {
+    }
+
+    public record Result(OrderDTO order, boolean replayed) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecommerce.orderservice.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * Immutable amount held as a long count of minor units (cents for USD). Amounts enter and leave
+ * through BigDecimal only at the entity/DTO boundary, where the rounding policy is applied once;
+ * arithmetic in between is exact and fails on overflow instead of wrapping.
+ */
+public final class Money implements Comparable<Money> {
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, Objects.requireNonNull(currency, "currency"));
+    }
+
+    public static Money zero(Currency currency) {
+        return ofMinor(0L, currency);
+    }
+
+    // Null is treated as zero, matching how optional discount/tax fields are handled on orders
+    public static Money of(BigDecimal amount, Currency currency, RoundingMode rounding) {
+        return ofMinor(toMinorUnits(amount, currency, rounding), currency);
+    }
+
+    public static long toMinorUnits(BigDecimal amount, Currency currency, RoundingMode rounding) {
+        if (amount == null) {
+            return 0L;
+        }
+        // movePointRight keeps compact values off BigInteger, which unscaledValue() would allocate
+        int digits = currency.getDefaultFractionDigits();
+        return amount.setScale(digits, rounding).movePointRight(digits).longValueExact();
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, checkCurrency(other).minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, checkCurrency(other).minorUnits), currency);
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    // Multiplies by a rate such as a tax rate, rounding the result to whole minor units
+    public Money times(BigDecimal rate, RoundingMode rounding) {
+        long product = BigDecimal.valueOf(minorUnits).multiply(rate).setScale(0, rounding).longValueExact();
+        return new Money(product, currency);
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public Currency currency() {
+        return currency;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+    }
+
+    private Money checkCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+        return other;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, checkCurrency(other).minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money money && minorUnits == money.minorUnits && currency.equals(money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minorUnits, currency);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the monthly order partitions ahead of the calendar and moves closed orders past the
+ * retention horizon into the archive tables, one short transaction per chunk. Partitions that
+ * the archival has emptied are dropped afterwards instead of being vacuumed row by row. Runs hold
+ * a cluster-wide lock so replicas never issue the partition DDL concurrently.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "orders.archive.enabled", havingValue = "true")
+public class OrderArchivalJob {
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter archivedCounter;
+    private final Counter partitionsCreatedCounter;
+    private final Counter partitionsDroppedCounter;
+    private final AtomicLong lastRunArchived = new AtomicLong();
+    private final AtomicLong lastRunCompletedAt = new AtomicLong();
+
+    @Value("${orders.archive.keep-months:12}")
+    private int keepMonths;
+
+    @Value("${orders.archive.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${orders.archive.max-orders-per-second:2000}")
+    private int maxOrdersPerSecond;
+
+    @Value("${orders.archive.max-chunks-per-run:500}")
+    private int maxChunksPerRun;
+
+    @Value("${orders.archive.partitions-ahead:3}")
+    private int partitionsAhead;
+
+    public OrderArchivalJob(OrderRepository orderRepository,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+
+        this.archivedCounter = meterRegistry.counter("orders.archive.archived");
+        this.partitionsCreatedCounter = meterRegistry.counter("orders.archive.partitions.created");
+        this.partitionsDroppedCounter = meterRegistry.counter("orders.archive.partitions.dropped");
+        meterRegistry.gauge("orders.archive.last.run.archived", lastRunArchived);
+        meterRegistry.gauge("orders.archive.last.run.completed", lastRunCompletedAt);
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}")
+    @SchedulerLock(name = "orderArchivalJob", lockAtMostFor = "${orders.archive.lock-at-most-for:PT2H}",
+            lockAtLeastFor = "PT5M")
+    public void run() {
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        LocalDate horizon = thisMonth.minusMonths(keepMonths);
+
+        Integer created = transactionTemplate.execute(status ->
+                orderRepository.createPartitions(thisMonth, thisMonth.plusMonths(partitionsAhead)));
+        partitionsCreatedCounter.increment(created);
+
+        long archived = archive(horizon.atStartOfDay());
+
+        Integer dropped = transactionTemplate.execute(status -> orderRepository.dropEmptyPartitions(horizon));
+        partitionsDroppedCounter.increment(dropped);
+
+        lastRunArchived.set(archived);
+        lastRunCompletedAt.set(System.currentTimeMillis());
+        log.info("Order archival finished: {} orders archived before {}, {} partitions created, {} dropped",
+                archived, horizon, created, dropped);
+    }
+
+    private long archive(LocalDateTime cutoff) {
+        long archived = 0;
+        int chunks = 0;
+
+        while (chunks < maxChunksPerRun && !Thread.currentThread().isInterrupted()) {
+            long started = System.nanoTime();
+            Integer moved = transactionTemplate.execute(status -> orderRepository.archiveClosedOrders(cutoff, chunkSize));
+            archived += moved;
+            archivedCounter.increment(moved);
+            chunks++;
+
+            if (moved < chunkSize) {
+                break;
+            }
+            throttle(moved, System.nanoTime() - started);
+        }
+        return archived;
+    }
+
+    // Paces chunks so archival never exceeds maxOrdersPerSecond
+    private void throttle(int processed, long elapsedNanos) {
+        if (maxOrdersPerSecond <= 0) {
+            return;
+        }
+        long budgetNanos = Duration.ofSeconds(1).toNanos() * processed / maxOrdersPerSecond;
+        long sleepMillis = Duration.ofNanos(budgetNanos - elapsedNanos).toMillis();
+        if (sleepMillis > 0) {
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.client.UserDirectoryClient;
+import com.ecommerce.orderservice.dto.OrderDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Fills the customer email on order listings for orders placed without one, using the user
+ * service's batch lookup. Runs outside the read transaction; if the lookup fails the orders are
+ * returned as stored.
+ */
+@Component
+@Slf4j
+public class OrderCustomerEnricher {
+
+    // users.batch-lookup.max-ids on the user service
+    private static final int MAX_IDS_PER_CALL = 200;
+
+    private final UserDirectoryClient userDirectoryClient;
+    private final MeterRegistry meterRegistry;
+
+    public OrderCustomerEnricher(UserDirectoryClient userDirectoryClient, MeterRegistry meterRegistry) {
+        this.userDirectoryClient = userDirectoryClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void fillMissingEmails(List<OrderDTO> orders) {
+        if (!userDirectoryClient.isConfigured()) {
+            return;
+        }
+        List<Long> userIds = orders.stream()
+                .filter(order -> order.getUserEmail() == null)
+                .map(OrderDTO::getUserId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        for (int from = 0; from < userIds.size(); from += MAX_IDS_PER_CALL) {
+            List<Long> chunk = new ArrayList<>(userIds.subList(from, Math.min(from + MAX_IDS_PER_CALL, userIds.size())));
+            Map<Long, UserDirectoryClient.UserSummary> users;
+            try {
+                users = userDirectoryClient.getUsers(chunk);
+            } catch (Exception e) {
+                log.warn("User lookup failed for {} order customers, returning orders without emails", chunk.size(), e);
+                meterRegistry.counter("orders.customer.lookup", "outcome", "unavailable").increment();
+                return;
+            }
+            for (OrderDTO order : orders) {
+                UserDirectoryClient.UserSummary user = order.getUserEmail() == null ? users.get(order.getUserId()) : null;
+                if (user != null) {
+                    order.setUserEmail(user.getEmail());
+                }
+            }
+            meterRegistry.counter("orders.customer.lookup", "outcome", "resolved").increment();
+        }
+    }
+}
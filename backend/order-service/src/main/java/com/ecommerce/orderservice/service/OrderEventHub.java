@@ -0,0 +1,368 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Fans order status and tracking changes out to Server-Sent Event connections. Events are
+ * delivered to this node's subscribers directly and relayed to other nodes over Redis pub/sub.
+ * Each connection has a small bounded buffer drained by its own virtual thread, at most one at a
+ * time, so a client whose socket stops accepting data blocks only its own writes. A client that
+ * lets its buffer fill, or whose write stays blocked past the write timeout, is disconnected
+ * rather than silently losing events; it resyncs from a fresh snapshot when it reconnects.
+ * Heartbeats go through the same per-connection buffers, so nothing queued anywhere grows with a
+ * slow client, and publishers never touch a connection themselves.
+ */
+@Service
+@Slf4j
+public class OrderEventHub implements MessageListener {
+
+    // Queued by the heartbeat task and written as an SSE comment; compared by identity
+    private static final OrderEventDTO HEARTBEAT = new OrderEventDTO();
+    // Eviction reason for a full buffer; such streams end with a normal completion
+    private static final Throwable SLOW_CLIENT = new IllegalStateException("Order event buffer full");
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final String channel;
+
+    private final Map<Long, Set<Subscriber>> byOrder = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> byUser = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService timers;
+
+    private final Counter publishedCounter;
+    private final Counter deliveredCounter;
+    private final Counter slowClosedCounter;
+    private final Counter writeTimeoutCounter;
+    private final int maxConnections;
+    private final long writeTimeoutNanos;
+
+    @Value("${orders.events.buffer-size:16}")
+    private int bufferSize;
+
+    @Value("${orders.events.connection-timeout:PT30M}")
+    private Duration connectionTimeout;
+
+    public OrderEventHub(StringRedisTemplate redisTemplate,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${orders.events.channel:orders:events}") String channel,
+                         @Value("${orders.events.max-connections:10000}") int maxConnections,
+                         @Value("${orders.events.heartbeat-interval:PT15S}") Duration heartbeatInterval,
+                         @Value("${orders.events.write-timeout:PT10S}") Duration writeTimeout) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.maxConnections = maxConnections;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+
+        // A blocked socket write parks one virtual thread, never a thread other connections need
+        this.senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("order-events-sender-", 0).factory());
+        this.timers = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "order-events-timer");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.publishedCounter = meterRegistry.counter("orders.events.published");
+        this.deliveredCounter = meterRegistry.counter("orders.events.delivered");
+        this.slowClosedCounter = meterRegistry.counter("orders.events.slow.closed");
+        this.writeTimeoutCounter = meterRegistry.counter("orders.events.write.timeouts");
+        meterRegistry.gauge("orders.events.connections", Tags.empty(), connections);
+
+        timers.scheduleAtFixedRate(this::sendHeartbeats,
+                heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        long watchdogMillis = Math.max(writeTimeout.toMillis() / 2, 1);
+        timers.scheduleAtFixedRate(this::evictStalledWriters, watchdogMillis, watchdogMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * The connection is registered before the snapshot is read, so an event committed while the
+     * snapshot is being built is buffered behind it instead of being missed. The snapshot goes out
+     * first; buffered events may repeat what it already shows but never skip a change.
+     */
+    public SseEmitter subscribeToOrder(Long orderId, Supplier<OrderEventDTO> snapshot) {
+        return subscribe(byOrder, orderId, snapshot);
+    }
+
+    public SseEmitter subscribeToUser(Long userId) {
+        return subscribe(byUser, userId, () -> null);
+    }
+
+    // Called inside the writing transaction; nothing is sent unless it commits
+    public void publish(OrderEventDTO event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishNow(event);
+                }
+            });
+        } else {
+            publishNow(event);
+        }
+    }
+
+    private void publishNow(OrderEventDTO event) {
+        publishedCounter.increment();
+        deliverLocally(event);
+        try {
+            String payload = objectMapper.writeValueAsString(new Envelope(nodeId, event));
+            redisTemplate.convertAndSend(channel, payload);
+        } catch (Exception e) {
+            log.warn("Failed to relay order event for order {} to other nodes", event.getOrderId(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Envelope envelope = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), Envelope.class);
+            if (!nodeId.equals(envelope.origin())) {
+                deliverLocally(envelope.event());
+            }
+        } catch (Exception e) {
+            log.warn("Ignoring malformed order event from Redis", e);
+        }
+    }
+
+    private SseEmitter subscribe(Map<Long, Set<Subscriber>> index, Long key, Supplier<OrderEventDTO> snapshot) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open event streams");
+        }
+
+        SseEmitter emitter = new SseEmitter(connectionTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        subscriber.remove = () -> {
+            if (subscriber.closed.compareAndSet(false, true)) {
+                connections.decrementAndGet();
+                index.computeIfPresent(key, (k, subs) -> {
+                    subs.remove(subscriber);
+                    return subs.isEmpty() ? null : subs;
+                });
+            }
+        };
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        emitter.onCompletion(subscriber.remove);
+        emitter.onTimeout(subscriber.remove);
+        emitter.onError(e -> subscriber.remove.run());
+
+        try {
+            subscriber.snapshot = snapshot.get();
+        } catch (RuntimeException e) {
+            subscriber.remove.run();
+            throw e;
+        }
+        subscriber.started = true;
+        scheduleDrain(subscriber);
+        return emitter;
+    }
+
+    private void deliverLocally(OrderEventDTO event) {
+        enqueue(byOrder.get(event.getOrderId()), event);
+        if (event.getUserId() != null) {
+            enqueue(byUser.get(event.getUserId()), event);
+        }
+    }
+
+    private void enqueue(Set<Subscriber> subscribers, OrderEventDTO event) {
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.evicted.get() != null) {
+                continue;
+            }
+            if (!subscriber.buffer.offer(event)) {
+                // Dropping events would leave the client showing a stale status; reconnecting resyncs it
+                if (evict(subscriber, SLOW_CLIENT)) {
+                    slowClosedCounter.increment();
+                    log.debug("Closing order event stream that fell {} events behind", bufferSize);
+                }
+                continue;
+            }
+            scheduleDrain(subscriber);
+        }
+    }
+
+    // A send blocked this long means the client stopped reading; its drain closes the stream once the write returns
+    private void evictStalledWriters() {
+        long now = System.nanoTime();
+        forEachSubscriber(subscriber -> {
+            long started = subscriber.sendStartedAt;
+            if (started != 0 && now - started > writeTimeoutNanos
+                    && evict(subscriber, new SocketTimeoutException("Order event write timed out"))) {
+                writeTimeoutCounter.increment();
+                log.debug("Dropping order event stream whose write has been blocked for over {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+            }
+        });
+    }
+
+    /**
+     * Takes the subscriber out of the indexes and frees its connection slot straight away. The
+     * emitter itself is only ever touched by the subscriber's drain, since its methods block for
+     * as long as a write is stuck; the drain completes it once any write in progress returns.
+     */
+    private boolean evict(Subscriber subscriber, Throwable reason) {
+        if (!subscriber.evicted.compareAndSet(null, reason)) {
+            return false;
+        }
+        subscriber.buffer.clear();
+        subscriber.remove.run();
+        scheduleDrain(subscriber);
+        return true;
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.started && subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            OrderEventDTO snapshot = subscriber.snapshot;
+            if (snapshot != null && !subscriber.closed.get()) {
+                subscriber.snapshot = null;
+                send(subscriber, snapshot);
+            }
+            OrderEventDTO event;
+            while (!subscriber.closed.get() && (event = subscriber.buffer.poll()) != null) {
+                send(subscriber, event);
+            }
+            Throwable evicted = subscriber.evicted.get();
+            if (evicted != null && subscriber.ended.compareAndSet(false, true)) {
+                if (evicted == SLOW_CLIENT) {
+                    subscriber.emitter.complete();
+                } else {
+                    subscriber.emitter.completeWithError(evicted);
+                }
+            }
+        } catch (Exception e) {
+            subscriber.ended.set(true);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.draining.set(false);
+            // An event or an eviction may have arrived between the last check and releasing the flag
+            boolean pendingEnd = subscriber.evicted.get() != null && !subscriber.ended.get();
+            if (pendingEnd || (!subscriber.closed.get() && !subscriber.buffer.isEmpty())) {
+                scheduleDrain(subscriber);
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, OrderEventDTO event) throws IOException {
+        subscriber.sendStartedAt = System.nanoTime();
+        try {
+            if (event == HEARTBEAT) {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                return;
+            }
+            subscriber.emitter.send(SseEmitter.event()
+                    .name(event.getType())
+                    .data(event, MediaType.APPLICATION_JSON));
+            deliveredCounter.increment();
+        } finally {
+            subscriber.sendStartedAt = 0;
+        }
+    }
+
+    // Comments keep idle connections open through proxies and surface dead clients.
+    // Only idle connections need one; anything already queued keeps the connection alive
+    private void sendHeartbeats() {
+        forEachSubscriber(subscriber -> {
+            if (!subscriber.draining.get() && subscriber.buffer.isEmpty() && subscriber.buffer.offer(HEARTBEAT)) {
+                scheduleDrain(subscriber);
+            }
+        });
+    }
+
+    private void forEachSubscriber(Consumer<Subscriber> action) {
+        byOrder.values().forEach(subscribers -> subscribers.forEach(action));
+        byUser.values().forEach(subscribers -> subscribers.forEach(action));
+    }
+
+    // Stalled streams were already evicted from the indexes, so this never waits on a stuck write
+    @PreDestroy
+    public void shutdown() {
+        timers.shutdownNow();
+        senders.shutdownNow();
+        forEachSubscriber(subscriber -> subscriber.emitter.complete());
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<OrderEventDTO> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean ended = new AtomicBoolean();
+        // Why the hub dropped the connection; the drain closes the emitter with it
+        private final AtomicReference<Throwable> evicted = new AtomicReference<>();
+        // Set before started, read by the drain task once scheduleDrain lets it run
+        private volatile OrderEventDTO snapshot;
+        private volatile boolean started;
+        // System.nanoTime() when the send in progress began, 0 between sends
+        private volatile long sendStartedAt;
+        private Runnable remove;
+
+        Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    public record Envelope(String origin, OrderEventDTO event) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.orderservice.service;
+
+import com.google.cloud.spring.pubsub.core.PubSubTemplate;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes order events to Pub/Sub and times each publish until the broker acknowledges it,
+ * tagged by topic and outcome. Failures are logged here, so callers can fire and forget.
+ */
+@Component
+@Slf4j
+public class OrderEventPublisher {
+
+    private final PubSubTemplate pubSubTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public OrderEventPublisher(PubSubTemplate pubSubTemplate, MeterRegistry meterRegistry) {
+        this.pubSubTemplate = pubSubTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public CompletableFuture<String> publish(String topic, String message) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<String> result;
+        try {
+            result = pubSubTemplate.publish(topic, message);
+        } catch (RuntimeException e) {
+            // Rejected before reaching the broker, e.g. the publisher is shut down
+            sample.stop(timer(topic, "rejected"));
+            log.error("Failed to publish to topic {}", topic, e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return result.whenComplete((messageId, error) -> {
+            sample.stop(timer(topic, error == null ? "success" : "failure"));
+            if (error != null) {
+                log.error("Publish to topic {} was not acknowledged", topic, error);
+            }
+        });
+    }
+
+    private Timer timer(String topic, String outcome) {
+        return Timer.builder("pubsub.publish")
+                .description("Time from publish until the broker acknowledges the message")
+                .tag("topic", topic)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.client.ProductCatalogClient.ProductSnapshot;
+import com.ecommerce.orderservice.dto.CreateOrderRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Checks client-supplied prices, discounts and quantities against the catalog before an order is
+ * written; tax is never taken from the client but computed by {@link OrderTotalsCalculator}. All
+ * lines are checked in one pass against the local price cache; lines that disagree with the cache
+ * are re-checked once against fresh data so a stale entry never rejects a valid order. A catalog
+ * failure on either lookup is reported as 503 rather than a server error.
+ */
+@Component
+@Slf4j
+public class OrderPricingValidator {
+
+    private final ProductPriceCache priceCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${orders.pricing.allow-client-discounts:false}")
+    private boolean allowClientDiscounts;
+
+    public OrderPricingValidator(ProductPriceCache priceCache, MeterRegistry meterRegistry) {
+        this.priceCache = priceCache;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void validate(CreateOrderRequest request) {
+        // Quantities are summed per product so split lines cannot bypass the stock check
+        Map<Long, Integer> requested = new HashMap<>();
+        for (CreateOrderRequest.OrderItemRequest item : request.getItems()) {
+            requested.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, ProductSnapshot> products = lookup(() -> priceCache.getAll(requested.keySet()));
+
+        Set<Long> suspect = check(request, requested, products, null);
+        if (!suspect.isEmpty()) {
+            products = new HashMap<>(products);
+            products.putAll(lookup(() -> priceCache.refresh(suspect)));
+            List<String> errors = new ArrayList<>();
+            check(request, requested, products, errors);
+            if (!errors.isEmpty()) {
+                meterRegistry.counter("orders.pricing.validation", "outcome", "rejected").increment();
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, String.join("; ", errors));
+            }
+        }
+        meterRegistry.counter("orders.pricing.validation", "outcome", suspect.isEmpty() ? "cached" : "refreshed").increment();
+    }
+
+    private Map<Long, ProductSnapshot> lookup(Supplier<Map<Long, ProductSnapshot>> catalogCall) {
+        try {
+            return catalogCall.get();
+        } catch (Exception e) {
+            log.error("Product catalog unavailable for order validation", e);
+            meterRegistry.counter("orders.pricing.validation", "outcome", "unavailable").increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Product catalog unavailable, please retry");
+        }
+    }
+
+    // Returns the products that failed a check; error messages are collected only when errors != null
+    private Set<Long> check(CreateOrderRequest request, Map<Long, Integer> requested,
+                            Map<Long, ProductSnapshot> products, List<String> errors) {
+        Set<Long> failed = new LinkedHashSet<>();
+
+        for (CreateOrderRequest.OrderItemRequest item : request.getItems()) {
+            Long productId = item.getProductId();
+            ProductSnapshot product = products.get(productId);
+
+            if (product == null || !Boolean.TRUE.equals(product.getIsActive())) {
+                fail(failed, errors, productId, "Product " + productId + " is not available");
+                continue;
+            }
+            if (!product.getSku().equals(item.getProductSku())) {
+                fail(failed, errors, productId, "SKU mismatch for product " + productId);
+            }
+            if (product.getPrice().compareTo(item.getUnitPrice()) != 0) {
+                fail(failed, errors, productId, "Price for product " + productId + " has changed to " + product.getPrice());
+            }
+
+            BigDecimal lineSubtotal = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            BigDecimal discount = item.getDiscountAmount();
+            if (discount != null && discount.signum() != 0
+                    && (!allowClientDiscounts || discount.signum() < 0 || discount.compareTo(lineSubtotal) > 0)) {
+                fail(failed, errors, productId, "Invalid discount for product " + productId);
+            }
+        }
+
+        requested.forEach((productId, quantity) -> {
+            ProductSnapshot product = products.get(productId);
+            if (product != null && product.getQuantity() != null && product.getQuantity() < quantity) {
+                fail(failed, errors, productId, "Insufficient stock for product " + productId);
+            }
+        });
+        return failed;
+    }
+
+    private static void fail(Set<Long> failed, List<String> errors, Long productId, String message) {
+        failed.add(productId);
+        if (errors != null) {
+            errors.add(message);
+        }
+    }
+}
@@ -2,13 +2,13 @@ package com.ecommerce.orderservice.service;
 
 import com.ecommerce.orderservice.dto.CreateOrderRequest;
 import com.ecommerce.orderservice.dto.OrderDTO;
+import com.ecommerce.orderservice.dto.OrderEventDTO;
 import com.ecommerce.orderservice.dto.OrderItemDTO;
 import com.ecommerce.orderservice.entity.Order;
 import com.ecommerce.orderservice.entity.OrderItem;
 import com.ecommerce.orderservice.entity.OrderStatusHistory;
 import com.ecommerce.orderservice.repository.OrderRepository;
 import com.ecommerce.orderservice.repository.OrderStatusHistoryRepository;
-import com.google.cloud.spring.pubsub.core.PubSubTemplate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -31,7 +31,10 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final OrderStatusHistoryRepository statusHistoryRepository;
-    private final PubSubTemplate pubSubTemplate;
+    private final OrderEventPublisher eventPublisher;
+    private final SalesStatsService salesStatsService;
+    private final OrderTotalsCalculator totalsCalculator;
+    private final OrderEventHub orderEventHub;
 
     @Value("${gcp.pubsub.topic.order-created:order-created}")
     private String orderCreatedTopic;
@@ -61,11 +64,7 @@ public class OrderService {
         order.setShippingCountry(request.getShippingCountry());
         order.setShippingPostalCode(request.getShippingPostalCode());
 
-        // Calculate totals
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal totalTax = BigDecimal.ZERO;
-        BigDecimal totalDiscount = BigDecimal.ZERO;
-
+        // Add order items
         for (CreateOrderRequest.OrderItemRequest itemRequest : request.getItems()) {
             OrderItem item = new OrderItem();
             item.setProductId(itemRequest.getProductId());
@@ -73,27 +72,13 @@ public class OrderService {
             item.setProductName(itemRequest.getProductName());
             item.setQuantity(itemRequest.getQuantity());
             item.setUnitPrice(itemRequest.getUnitPrice());
-            item.setDiscountAmount(itemRequest.getDiscountAmount() != null ? itemRequest.getDiscountAmount() : BigDecimal.ZERO);
-            item.setTaxAmount(itemRequest.getTaxAmount() != null ? itemRequest.getTaxAmount() : BigDecimal.ZERO);
-
-            BigDecimal itemTotal = itemRequest.getUnitPrice()
-                    .multiply(BigDecimal.valueOf(itemRequest.getQuantity()))
-                    .subtract(item.getDiscountAmount())
-                    .add(item.getTaxAmount());
-            item.setTotalPrice(itemTotal);
-
+            item.setDiscountAmount(itemRequest.getDiscountAmount());
             order.addItem(item);
-
-            subtotal = subtotal.add(itemRequest.getUnitPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())));
-            totalTax = totalTax.add(item.getTaxAmount());
-            totalDiscount = totalDiscount.add(item.getDiscountAmount());
         }
 
-        order.setSubtotal(subtotal);
-        order.setTaxAmount(totalTax);
+        // Calculate totals
         order.setShippingAmount(BigDecimal.ZERO); // Calculate based on shipping rules
-        order.setDiscountAmount(totalDiscount);
-        order.setTotalAmount(subtotal.subtract(totalDiscount).add(totalTax).add(order.getShippingAmount()));
+        totalsCalculator.apply(order);
 
         // Add initial status history
         OrderStatusHistory statusHistory = new OrderStatusHistory();
@@ -104,6 +89,7 @@ public class OrderService {
 
         // Save order
         Order savedOrder = orderRepository.save(order);
+        salesStatsService.recordOrderCreated(savedOrder);
 
         // Publish order created event
         publishOrderCreatedEvent(savedOrder);
@@ -114,21 +100,21 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public OrderDTO getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findByIdIncludingArchive(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
         return mapToDTO(order);
     }
 
     @Transactional(readOnly = true)
     public OrderDTO getOrderByOrderNumber(String orderNumber) {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
+        Order order = orderRepository.findByOrderNumberIncludingArchive(orderNumber)
                 .orElseThrow(() -> new RuntimeException("Order not found with order number: " + orderNumber));
         return mapToDTO(order);
     }
 
     @Transactional(readOnly = true)
     public Page<OrderDTO> getOrdersByUserId(Long userId, Pageable pageable) {
-        return orderRepository.findByUserId(userId, pageable)
+        return orderRepository.findByUserIdIncludingArchive(userId, pageable)
                 .map(this::mapToDTO);
     }
 
@@ -146,7 +132,7 @@ public class OrderService {
 
     @Transactional
     public OrderDTO updateOrderStatus(Long id, Order.OrderStatus newStatus, String notes, String changedBy) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
 
         Order.OrderStatus oldStatus = order.getStatus();
@@ -174,9 +160,11 @@ public class OrderService {
         order.addStatusHistory(statusHistory);
 
         Order savedOrder = orderRepository.save(order);
+        salesStatsService.recordStatusChange(savedOrder, oldStatus, newStatus);
 
         // Publish status changed event
         publishOrderStatusChangedEvent(savedOrder, oldStatus, newStatus);
+        orderEventHub.publish(toEvent("STATUS_CHANGED", savedOrder));
 
         log.info("Order {} status updated from {} to {}", order.getOrderNumber(), oldStatus, newStatus);
         return mapToDTO(savedOrder);
@@ -184,11 +172,12 @@ public class OrderService {
 
     @Transactional
     public OrderDTO updateTrackingNumber(Long id, String trackingNumber) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
 
         order.setTrackingNumber(trackingNumber);
         Order savedOrder = orderRepository.save(order);
+        orderEventHub.publish(toEvent("TRACKING_UPDATED", savedOrder));
 
         log.info("Tracking number updated for order {}: {}", order.getOrderNumber(), trackingNumber);
         return mapToDTO(savedOrder);
@@ -201,9 +190,9 @@ public class OrderService {
 
     private void publishOrderCreatedEvent(Order order) {
         try {
-            String message = String.format("{\"orderId\":%d,\"orderNumber\":\"%s\",\"userId\":%d,\"totalAmount\":%s,\"status\":\"%s\"}",
-                    order.getId(), order.getOrderNumber(), order.getUserId(), order.getTotalAmount(), order.getStatus());
-            pubSubTemplate.publish(orderCreatedTopic, message);
+            String message = String.format("{\"orderId\":%d,\"orderNumber\":\"%s\",\"userId\":%d,\"totalAmount\":%s,\"status\":\"%s\",\"items\":[%s]}",
+                    order.getId(), order.getOrderNumber(), order.getUserId(), order.getTotalAmount(), order.getStatus(), itemsJson(order));
+            eventPublisher.publish(orderCreatedTopic, message);
             log.info("Published order created event for order: {}", order.getOrderNumber());
         } catch (Exception e) {
             log.error("Failed to publish order created event", e);
@@ -212,22 +201,41 @@ public class OrderService {
 
     private void publishOrderStatusChangedEvent(Order order, Order.OrderStatus oldStatus, Order.OrderStatus newStatus) {
         try {
-            String message = String.format("{\"orderId\":%d,\"orderNumber\":\"%s\",\"oldStatus\":\"%s\",\"newStatus\":\"%s\"}",
-                    order.getId(), order.getOrderNumber(), oldStatus, newStatus);
-            pubSubTemplate.publish(orderStatusChangedTopic, message);
+            // Lines are attached only when a cancellation releases stock, same as the reaper's events
+            boolean releasesStock = newStatus == Order.OrderStatus.CANCELLED && oldStatus != Order.OrderStatus.CANCELLED;
+            String message = String.format("{\"orderId\":%d,\"orderNumber\":\"%s\",\"oldStatus\":\"%s\",\"newStatus\":\"%s\",\"items\":[%s]}",
+                    order.getId(), order.getOrderNumber(), oldStatus, newStatus, releasesStock ? itemsJson(order) : "");
+            eventPublisher.publish(orderStatusChangedTopic, message);
             log.info("Published order status changed event for order: {}", order.getOrderNumber());
         } catch (Exception e) {
             log.error("Failed to publish order status changed event", e);
         }
     }
 
-    private String generateOrderNumber() {
+    private String itemsJson(Order order) {
+        StringBuilder items = new StringBuilder();
+        for (OrderItem item : order.getItems()) {
+            if (items.length() > 0) {
+                items.append(',');
+            }
+            items.append(String.format("{\"productId\":%d,\"quantity\":%d}", item.getProductId(), item.getQuantity()));
+        }
+        return items.toString();
+    }
+
+    private OrderEventDTO toEvent(String type, Order order) {
+        return new OrderEventDTO(type, order.getId(), order.getOrderNumber(), order.getUserId(),
+                order.getStatus(), order.getTrackingNumber(), LocalDateTime.now());
+    }
+
+    // Package-private so the JMH benchmarks can call the mappers and generator directly
+    String generateOrderNumber() {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
         String random = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
         return "ORD-" + timestamp + "-" + random;
     }
 
-    private OrderDTO mapToDTO(Order order) {
+    OrderDTO mapToDTO(Order order) {
         OrderDTO dto = new OrderDTO();
         dto.setId(order.getId());
         dto.setOrderNumber(order.getOrderNumber());
@@ -264,7 +272,7 @@ public class OrderService {
         return dto;
     }
 
-    private OrderItemDTO mapItemToDTO(OrderItem item) {
+    OrderItemDTO mapItemToDTO(OrderItem item) {
         OrderItemDTO dto = new OrderItemDTO();
         dto.setId(item.getId());
         dto.setProductId(item.getProductId());
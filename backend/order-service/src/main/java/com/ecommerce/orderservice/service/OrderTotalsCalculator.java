@@ -0,0 +1,62 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * Computes line and order totals in long minor units. Item amounts are normalized to the
+ * currency scale on the way in, so the stored unit price, discount, tax and line total always
+ * add up exactly. Tax is always computed here from the discounted line subtotal; clients cannot
+ * supply it.
+ */
+@Component
+public class OrderTotalsCalculator {
+
+    private final Currency currency;
+    private final RoundingMode rounding;
+    private final BigDecimal taxRate;
+
+    public OrderTotalsCalculator(@Value("${orders.pricing.currency:USD}") String currencyCode,
+                                 @Value("${orders.pricing.rounding:HALF_UP}") RoundingMode rounding,
+                                 @Value("${orders.pricing.tax-rate:0.08}") BigDecimal taxRate) {
+        this.currency = Currency.getInstance(currencyCode);
+        this.rounding = rounding;
+        this.taxRate = taxRate;
+    }
+
+    public void apply(Order order) {
+        Money subtotal = Money.zero(currency);
+        Money totalTax = Money.zero(currency);
+        Money totalDiscount = Money.zero(currency);
+
+        for (OrderItem item : order.getItems()) {
+            Money unitPrice = Money.of(item.getUnitPrice(), currency, rounding);
+            Money discount = Money.of(item.getDiscountAmount(), currency, rounding);
+            Money lineSubtotal = unitPrice.times(item.getQuantity());
+            Money tax = lineSubtotal.minus(discount).times(taxRate, rounding);
+
+            item.setUnitPrice(unitPrice.toBigDecimal());
+            item.setDiscountAmount(discount.toBigDecimal());
+            item.setTaxAmount(tax.toBigDecimal());
+            item.setTotalPrice(lineSubtotal.minus(discount).plus(tax).toBigDecimal());
+
+            subtotal = subtotal.plus(lineSubtotal);
+            totalTax = totalTax.plus(tax);
+            totalDiscount = totalDiscount.plus(discount);
+        }
+
+        Money shipping = Money.of(order.getShippingAmount(), currency, rounding);
+
+        order.setSubtotal(subtotal.toBigDecimal());
+        order.setTaxAmount(totalTax.toBigDecimal());
+        order.setShippingAmount(shipping.toBigDecimal());
+        order.setDiscountAmount(totalDiscount.toBigDecimal());
+        order.setTotalAmount(subtotal.minus(totalDiscount).plus(totalTax).plus(shipping).toBigDecimal());
+    }
+}
@@ -0,0 +1,257 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderEventDTO;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import com.ecommerce.orderservice.repository.ProcessedMessageRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.spring.pubsub.core.subscriber.PubSubSubscriberTemplate;
+import com.google.cloud.spring.pubsub.support.AcknowledgeablePubsubMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies payment-processed events in batches. Each pull is deduplicated against
+ * processed_messages by payment key rather than Pub/Sub message id, since a provider retry or a
+ * republished event arrives under a new message id. Outcomes are collapsed to one per order and
+ * written with set-based updates; the whole pull is acked in one call once the transaction has
+ * committed. Memory stays bounded during catch-up because nothing is pulled until the previous
+ * batch is acked.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "orders.payments.consumer.enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentEventConsumer {
+
+    private static final String CHANGED_BY = "PAYMENT";
+    private static final Set<String> PAID_STATUSES = Set.of("SUCCEEDED", "SUCCESS", "COMPLETED", "PAID");
+
+    private final PubSubSubscriberTemplate subscriberTemplate;
+    private final OrderEventPublisher eventPublisher;
+    private final OrderRepository orderRepository;
+    private final ProcessedMessageRepository processedMessageRepository;
+    private final SalesStatsService salesStatsService;
+    private final OrderEventHub orderEventHub;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Counter duplicateCounter;
+    private final Counter confirmedCounter;
+    private final Counter failedCounter;
+    private final Counter paidAfterCancelCounter;
+    private final Timer batchTimer;
+
+    @Value("${orders.payments.consumer.subscription:payment-processed-subscription}")
+    private String subscription;
+
+    @Value("${orders.payments.consumer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${orders.payments.consumer.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${orders.payments.consumer.processed-retention:P7D}")
+    private Duration processedRetention;
+
+    @Value("${gcp.pubsub.topic.order-status-changed:order-status-changed}")
+    private String orderStatusChangedTopic;
+
+    public PaymentEventConsumer(PubSubSubscriberTemplate subscriberTemplate,
+                                OrderEventPublisher eventPublisher,
+                                OrderRepository orderRepository,
+                                ProcessedMessageRepository processedMessageRepository,
+                                SalesStatsService salesStatsService,
+                                OrderEventHub orderEventHub,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.subscriberTemplate = subscriberTemplate;
+        this.eventPublisher = eventPublisher;
+        this.orderRepository = orderRepository;
+        this.processedMessageRepository = processedMessageRepository;
+        this.salesStatsService = salesStatsService;
+        this.orderEventHub = orderEventHub;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+
+        this.duplicateCounter = meterRegistry.counter("orders.payments.consumer.duplicates");
+        this.confirmedCounter = meterRegistry.counter("orders.payments.consumer.confirmed");
+        this.failedCounter = meterRegistry.counter("orders.payments.consumer.failed");
+        this.paidAfterCancelCounter = meterRegistry.counter("orders.payments.consumer.paid.after.cancel");
+        this.batchTimer = Timer.builder("orders.payments.consumer.batch.duration")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.payments.consumer.poll-interval:PT1S}")
+    public void poll() {
+        for (int i = 0; i < maxBatchesPerPoll && !Thread.currentThread().isInterrupted(); i++) {
+            List<AcknowledgeablePubsubMessage> messages = subscriberTemplate.pull(subscription, batchSize, true);
+            if (messages.isEmpty()) {
+                return;
+            }
+
+            processBatch(messages);
+            if (messages.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private void processBatch(List<AcknowledgeablePubsubMessage> messages) {
+        Map<String, PaymentOutcome> outcomes = new HashMap<>();
+        for (AcknowledgeablePubsubMessage message : messages) {
+            PaymentOutcome outcome = parse(message);
+            if (outcome != null) {
+                outcomes.put(outcome.key(), outcome);
+            }
+        }
+
+        List<Object[]> paid;
+        try {
+            paid = batchTimer.record(() -> transactionTemplate.execute(status -> apply(outcomes)));
+        } catch (RuntimeException e) {
+            log.error("Payment batch of {} messages failed, leaving it for redelivery", messages.size(), e);
+            subscriberTemplate.nack(messages);
+            meterRegistry.counter("orders.payments.consumer.messages", "outcome", "failed").increment(messages.size());
+            return;
+        }
+
+        subscriberTemplate.ack(messages);
+        meterRegistry.counter("orders.payments.consumer.messages", "outcome", "acked").increment(messages.size());
+        paid.forEach(this::publishPaidEvents);
+    }
+
+    // Unparseable messages are acked without effect so they cannot block the subscription
+    private PaymentOutcome parse(AcknowledgeablePubsubMessage message) {
+        try {
+            JsonNode event = objectMapper.readTree(message.getPubsubMessage().getData().toStringUtf8());
+            long orderId = event.path("orderId").asLong();
+            if (orderId <= 0) {
+                throw new IllegalArgumentException("Missing orderId");
+            }
+            String status = event.path("status").asText("").toUpperCase();
+            // One key per payment attempt; events without a payment id fall back to one per status
+            String paymentId = event.path("paymentId").asText("");
+            String key = "payment:" + orderId + ":" + (paymentId.isEmpty() ? status : paymentId);
+            return new PaymentOutcome(key, orderId, PAID_STATUSES.contains(status));
+        } catch (Exception e) {
+            meterRegistry.counter("orders.payments.consumer.messages", "outcome", "invalid").increment();
+            log.error("Ignoring malformed payment event {}", message.getPubsubMessage().getMessageId(), e);
+            return null;
+        }
+    }
+
+    private List<Object[]> apply(Map<String, PaymentOutcome> outcomes) {
+        if (outcomes.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> claimed = processedMessageRepository.claim(toArrayLiteral(outcomes.keySet()));
+        duplicateCounter.increment(outcomes.size() - claimed.size());
+
+        // A successful payment for an order wins over any failed attempt in the same batch
+        Map<Long, Boolean> byOrder = new HashMap<>();
+        for (String key : claimed) {
+            PaymentOutcome outcome = outcomes.get(key);
+            byOrder.merge(outcome.orderId(), outcome.paid(), Boolean::logicalOr);
+        }
+        List<Long> paidIds = byOrder.entrySet().stream().filter(Map.Entry::getValue).map(Map.Entry::getKey).toList();
+        List<Long> failedIds = byOrder.entrySet().stream().filter(e -> !e.getValue()).map(Map.Entry::getKey).toList();
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!failedIds.isEmpty()) {
+            failedCounter.increment(orderRepository.markPaymentsFailed(failedIds, now));
+        }
+        if (paidIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object[]> paid = orderRepository.markOrdersPaid(paidIds, now);
+        List<Long> confirmedIds = new ArrayList<>();
+        Map<LocalDate, BigDecimal> revenueByDay = new HashMap<>();
+        Map<LocalDate, Long> ordersByDay = new HashMap<>();
+        for (Object[] row : paid) {
+            String oldStatus = (String) row[3];
+            if (Order.OrderStatus.PENDING.name().equals(oldStatus)) {
+                LocalDate day = toLocalDate(row[5]);
+                confirmedIds.add(((Number) row[0]).longValue());
+                revenueByDay.merge(day, (BigDecimal) row[6], BigDecimal::add);
+                ordersByDay.merge(day, 1L, Long::sum);
+            } else if (Order.OrderStatus.CANCELLED.name().equals(oldStatus)) {
+                paidAfterCancelCounter.increment();
+                log.warn("Payment received for cancelled order {}, needs a refund", row[1]);
+            }
+        }
+
+        if (!confirmedIds.isEmpty()) {
+            orderRepository.insertStatusHistory(confirmedIds, Order.OrderStatus.CONFIRMED.name(),
+                    "Payment received", CHANGED_BY, now);
+            ordersByDay.forEach((day, count) -> salesStatsService.moveOrders(
+                    day, Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, count, revenueByDay.get(day)));
+            confirmedCounter.increment(confirmedIds.size());
+        }
+        return paid;
+    }
+
+    private void publishPaidEvents(Object[] row) {
+        String oldStatus = (String) row[3];
+        String newStatus = (String) row[4];
+        if (oldStatus.equals(newStatus)) {
+            return;
+        }
+        Long orderId = ((Number) row[0]).longValue();
+        String orderNumber = (String) row[1];
+        try {
+            String message = String.format("{\"orderId\":%d,\"orderNumber\":\"%s\",\"oldStatus\":\"%s\",\"newStatus\":\"%s\",\"items\":[]}",
+                    orderId, orderNumber, oldStatus, newStatus);
+            eventPublisher.publish(orderStatusChangedTopic, message);
+        } catch (Exception e) {
+            log.error("Failed to publish status changed event for order: {}", orderNumber, e);
+        }
+        orderEventHub.publish(new OrderEventDTO("STATUS_CHANGED", orderId, orderNumber, ((Number) row[2]).longValue(),
+                Order.OrderStatus.valueOf(newStatus), (String) row[7], LocalDateTime.now()));
+    }
+
+    @Scheduled(cron = "${orders.payments.consumer.cleanup-cron:0 15 4 * * *}")
+    public void purgeProcessedMessages() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(processedRetention);
+        Integer deleted = transactionTemplate.execute(status -> processedMessageRepository.deleteProcessedBefore(cutoff));
+        log.info("Purged {} processed payment keys older than {}", deleted, cutoff);
+    }
+
+    // Postgres array literal of quoted keys, e.g. {"payment:1:SUCCEEDED","payment:2:pay_9"}
+    private static String toArrayLiteral(Set<String> values) {
+        return values.stream()
+                .map(value -> '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"')
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private record PaymentOutcome(String key, long orderId, boolean paid) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.client.ProductCatalogClient;
+import com.ecommerce.orderservice.client.ProductCatalogClient.ProductSnapshot;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Short-lived local copy of product prices and stock. All misses of a lookup are resolved
+ * with a single batched call to product-service.
+ */
+@Component
+public class ProductPriceCache {
+
+    private final ProductCatalogClient catalogClient;
+    private final LoadingCache<Long, ProductSnapshot> cache;
+
+    public ProductPriceCache(ProductCatalogClient catalogClient,
+                             MeterRegistry meterRegistry,
+                             @Value("${orders.pricing.cache-ttl:PT30S}") Duration ttl,
+                             @Value("${orders.pricing.cache-max-size:50000}") long maxSize) {
+        this.catalogClient = catalogClient;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public ProductSnapshot load(Long productId) {
+                        return loadAll(Set.of(productId)).get(productId);
+                    }
+
+                    @Override
+                    public Map<Long, ProductSnapshot> loadAll(Set<? extends Long> productIds) {
+                        return fetch(productIds);
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orders.pricing.products");
+    }
+
+    // Products unknown to product-service are absent from the result
+    public Map<Long, ProductSnapshot> getAll(Collection<Long> productIds) {
+        return cache.getAll(productIds);
+    }
+
+    // Bypasses the cache for products whose cached values looked stale, refreshing them in place
+    public Map<Long, ProductSnapshot> refresh(Collection<Long> productIds) {
+        Map<Long, ProductSnapshot> fresh = fetch(productIds);
+        cache.invalidateAll(productIds);
+        cache.putAll(fresh);
+        return fresh;
+    }
+
+    private Map<Long, ProductSnapshot> fetch(Collection<? extends Long> productIds) {
+        List<ProductSnapshot> snapshots = catalogClient.getAvailability(List.copyOf(productIds));
+        return snapshots.stream().collect(Collectors.toMap(ProductSnapshot::getId, Function.identity(), (a, b) -> a, HashMap::new));
+    }
+}
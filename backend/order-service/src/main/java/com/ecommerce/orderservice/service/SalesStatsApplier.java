@@ -0,0 +1,50 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.repository.ProductSalesStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Folds the deltas appended by order transactions into the sales rollups, one short transaction
+ * per batch. The database function takes an advisory lock, so only one replica applies at a time
+ * and the others skip the round; a rebuild holds the same lock while it swaps the tables.
+ */
+@Component
+@Slf4j
+public class SalesStatsApplier {
+
+    private final ProductSalesStatsRepository productSalesStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter appliedCounter;
+
+    @Value("${orders.stats.apply-batch-size:5000}")
+    private int batchSize;
+
+    @Value("${orders.stats.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    public SalesStatsApplier(ProductSalesStatsRepository productSalesStatsRepository,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry) {
+        this.productSalesStatsRepository = productSalesStatsRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.appliedCounter = meterRegistry.counter("orders.stats.deltas.applied");
+    }
+
+    @Scheduled(fixedDelayString = "${orders.stats.apply-interval:PT1S}")
+    public void apply() {
+        for (int batches = 0; batches < maxBatchesPerRun; batches++) {
+            Integer applied = transactionTemplate.execute(status -> productSalesStatsRepository.applyDeltas(batchSize));
+            appliedCounter.increment(applied);
+            if (applied < batchSize) {
+                return;
+            }
+        }
+        log.debug("Sales stats deltas still pending after {} batches", maxBatchesPerRun);
+    }
+}
@@ -0,0 +1,151 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.ProductSalesDTO;
+import com.ecommerce.orderservice.dto.SalesSummaryDTO;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import com.ecommerce.orderservice.repository.DailySalesStatsRepository;
+import com.ecommerce.orderservice.repository.ProductSalesStatsRepository;
+import com.ecommerce.orderservice.repository.StatusSalesStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the sales rollups incrementally. Order transactions only append deltas, which commit
+ * or roll back with the order rows that produced them; {@link SalesStatsApplier} folds them into
+ * the rollup tables shortly afterwards, so checkouts never contend on the shared rollup rows and
+ * the rollups trail the orders by about one apply interval. Cancelled and refunded orders do not
+ * count towards units sold.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesStatsService {
+
+    private final ProductSalesStatsRepository productSalesStatsRepository;
+    private final DailySalesStatsRepository dailySalesStatsRepository;
+    private final StatusSalesStatsRepository statusSalesStatsRepository;
+
+    @Value("${orders.stats.rebuild-token:}")
+    private String rebuildToken;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrderCreated(Order order) {
+        moveOrders(order.getCreatedAt().toLocalDate(), null, order.getStatus(), 1, order.getTotalAmount());
+        addProductSales(linesOf(order.getItems()), 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChange(Order order, Order.OrderStatus oldStatus, Order.OrderStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        moveOrders(order.getCreatedAt().toLocalDate(), oldStatus, newStatus, 1, order.getTotalAmount());
+        if (isCounted(oldStatus) != isCounted(newStatus)) {
+            addProductSales(linesOf(order.getItems()), isCounted(newStatus) ? 1 : -1);
+        }
+    }
+
+    // Moves a number of orders between status buckets of one day; from is null on creation
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void moveOrders(LocalDate day, Order.OrderStatus from, Order.OrderStatus to, long orders, BigDecimal revenue) {
+        if (from != null) {
+            dailySalesStatsRepository.appendDelta(day, from.name(), -orders, revenue.negate());
+        }
+        dailySalesStatsRepository.appendDelta(day, to.name(), orders, revenue);
+    }
+
+    // Lines are merged per product first so a product appears in one delta per call
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addProductSales(Collection<SalesLine> lines, int sign) {
+        Map<Long, SalesLine> merged = new TreeMap<>();
+        for (SalesLine line : lines) {
+            merged.merge(line.productId(), line, SalesLine::plus);
+        }
+        for (SalesLine line : merged.values()) {
+            BigDecimal revenue = sign < 0 ? line.revenue().negate() : line.revenue();
+            productSalesStatsRepository.appendDelta(line.productId(), sign * line.quantity(), revenue);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ProductSalesDTO getProductSales(Long productId) {
+        return productSalesStatsRepository.findById(productId)
+                .map(s -> new ProductSalesDTO(s.getProductId(), s.getUnitsSold(), s.getRevenue()))
+                .orElseGet(() -> new ProductSalesDTO(productId, 0L, BigDecimal.ZERO));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductSalesDTO> getProductSales(Collection<Long> productIds) {
+        return productSalesStatsRepository.findAllById(productIds).stream()
+                .map(s -> new ProductSalesDTO(s.getProductId(), s.getUnitsSold(), s.getRevenue()))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<SalesSummaryDTO> getDailySales(LocalDate from, LocalDate to) {
+        return dailySalesStatsRepository.findByDateRange(from, to).stream()
+                .map(s -> new SalesSummaryDTO(s.getId().getSalesDate(), s.getId().getStatus(), s.getOrderCount(), s.getRevenue()))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<SalesSummaryDTO> getStatusTotals() {
+        return statusSalesStatsRepository.findAll().stream()
+                .map(s -> new SalesSummaryDTO(null, s.getStatus(), s.getOrderCount(), s.getRevenue()))
+                .collect(Collectors.toList());
+    }
+
+    // Recomputes every rollup from order history into shadow tables and swaps them in
+    @Transactional(timeout = 3600)
+    public Map<String, Integer> rebuild() {
+        log.info("Rebuilding sales rollups from order history");
+        Object[] counts = productSalesStatsRepository.rebuildFromHistory().get(0);
+
+        Map<String, Integer> rows = new LinkedHashMap<>();
+        rows.put("products", ((Number) counts[0]).intValue());
+        rows.put("daily", ((Number) counts[1]).intValue());
+        rows.put("statuses", ((Number) counts[2]).intValue());
+
+        log.info("Sales rollups rebuilt: {}", rows);
+        return rows;
+    }
+
+    // Rebuilds are disabled unless a token is configured
+    public boolean isRebuildAllowed(String token) {
+        return !rebuildToken.isEmpty() && token != null && MessageDigest.isEqual(
+                rebuildToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isCounted(Order.OrderStatus status) {
+        return status != Order.OrderStatus.CANCELLED && status != Order.OrderStatus.REFUNDED;
+    }
+
+    private static List<SalesLine> linesOf(Collection<OrderItem> items) {
+        return items.stream()
+                .map(i -> new SalesLine(i.getProductId(), i.getQuantity(), i.getTotalPrice()))
+                .collect(Collectors.toList());
+    }
+
+    public record SalesLine(Long productId, long quantity, BigDecimal revenue) {
+
+        SalesLine plus(SalesLine other) {
+            return new SalesLine(productId, quantity + other.quantity, revenue.add(other.revenue));
+        }
+    }
+}
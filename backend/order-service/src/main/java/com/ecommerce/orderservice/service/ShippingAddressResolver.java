@@ -0,0 +1,56 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.client.UserAddressClient;
+import com.ecommerce.orderservice.dto.CreateOrderRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Fills the shipping columns from the caller's address book when checkout sends an address id.
+ * The order still stores its own copy, so later address edits do not rewrite past orders.
+ */
+@Component
+@Slf4j
+public class ShippingAddressResolver {
+
+    private final UserAddressClient userAddressClient;
+    private final MeterRegistry meterRegistry;
+
+    public ShippingAddressResolver(UserAddressClient userAddressClient, MeterRegistry meterRegistry) {
+        this.userAddressClient = userAddressClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void resolve(CreateOrderRequest request, String authorization) {
+        if (request.getShippingAddressId() == null) {
+            return;
+        }
+        if (authorization == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication is required to use a saved address");
+        }
+
+        UserAddressClient.Address address;
+        try {
+            address = userAddressClient.getAddress(request.getShippingAddressId(), authorization);
+        } catch (HttpClientErrorException e) {
+            meterRegistry.counter("orders.shipping.address.lookup", "outcome", "rejected").increment();
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Unknown shipping address");
+        } catch (Exception e) {
+            log.error("User service unavailable for shipping address {}", request.getShippingAddressId(), e);
+            meterRegistry.counter("orders.shipping.address.lookup", "outcome", "unavailable").increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Address book unavailable, please retry");
+        }
+
+        request.setShippingAddressLine1(address.getAddressLine1());
+        request.setShippingAddressLine2(address.getAddressLine2());
+        request.setShippingCity(address.getCity());
+        request.setShippingState(address.getState());
+        request.setShippingPostalCode(address.getPostalCode());
+        request.setShippingCountry(address.getCountry());
+        meterRegistry.counter("orders.shipping.address.lookup", "outcome", "resolved").increment();
+    }
+}
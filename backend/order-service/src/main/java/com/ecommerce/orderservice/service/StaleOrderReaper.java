@@ -0,0 +1,222 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderEventDTO;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.repository.OrderItemRepository;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cancels PENDING orders that were never paid for. Stale ids are walked in keyset order and
+ * each chunk is expired with one conditional UPDATE; stock is released by publishing the
+ * usual order-status-changed event with the order lines attached, and open event streams get the
+ * same STATUS_CHANGED as any other cancellation. Runs hold a cluster-wide lock, so only one
+ * replica reaps at a time and the rate limit holds for the whole cluster.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "orders.reaper.enabled", havingValue = "true", matchIfMissing = true)
+public class StaleOrderReaper {
+
+    private static final String REASON = "Expired: payment not received";
+    private static final String CHANGED_BY = "REAPER";
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final SalesStatsService salesStatsService;
+    private final OrderEventHub orderEventHub;
+
+    private final Counter expiredCounter;
+    private final Counter skippedCounter;
+    private final Counter chunkCounter;
+    private final Timer chunkTimer;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLong lastRunExpired = new AtomicLong();
+    private final AtomicLong lastRunCompletedAt = new AtomicLong();
+
+    @Value("${orders.reaper.stale-after:PT24H}")
+    private Duration staleAfter;
+
+    @Value("${orders.reaper.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${orders.reaper.max-orders-per-second:200}")
+    private int maxOrdersPerSecond;
+
+    @Value("${orders.reaper.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+
+    @Value("${gcp.pubsub.topic.order-status-changed:order-status-changed}")
+    private String orderStatusChangedTopic;
+
+    public StaleOrderReaper(OrderRepository orderRepository,
+                            OrderItemRepository orderItemRepository,
+                            OrderEventPublisher eventPublisher,
+                            TransactionTemplate transactionTemplate,
+                            SalesStatsService salesStatsService,
+                            OrderEventHub orderEventHub,
+                            MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.salesStatsService = salesStatsService;
+        this.orderEventHub = orderEventHub;
+
+        this.expiredCounter = meterRegistry.counter("orders.reaper.expired");
+        this.skippedCounter = meterRegistry.counter("orders.reaper.skipped");
+        this.chunkCounter = meterRegistry.counter("orders.reaper.chunks");
+        this.chunkTimer = Timer.builder("orders.reaper.chunk.duration")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gauge("orders.reaper.cursor", cursor);
+        meterRegistry.gauge("orders.reaper.last.run.expired", lastRunExpired);
+        meterRegistry.gauge("orders.reaper.last.run.completed", lastRunCompletedAt);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.reaper.interval:PT5M}", initialDelayString = "${orders.reaper.initial-delay:PT1M}")
+    @SchedulerLock(name = "staleOrderReaper", lockAtMostFor = "${orders.reaper.lock-at-most-for:PT30M}",
+            lockAtLeastFor = "${orders.reaper.lock-at-least-for:PT1M}")
+    public void reap() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        long afterId = 0L;
+        long expired = 0L;
+        int chunks = 0;
+
+        cursor.set(0L);
+        log.info("Reaping PENDING orders created before {}", cutoff);
+
+        while (chunks < maxChunksPerRun && !Thread.currentThread().isInterrupted()) {
+            List<Long> ids = orderRepository.findIdsByStatusAndCreatedAtBefore(
+                    Order.OrderStatus.PENDING, cutoff, afterId, PageRequest.ofSize(chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            long started = System.nanoTime();
+            expired += chunkTimer.record(() -> expireChunk(ids));
+            afterId = ids.get(ids.size() - 1);
+            cursor.set(afterId);
+            chunks++;
+            chunkCounter.increment();
+
+            if (ids.size() < chunkSize) {
+                break;
+            }
+            throttle(ids.size(), System.nanoTime() - started);
+        }
+
+        lastRunExpired.set(expired);
+        lastRunCompletedAt.set(System.currentTimeMillis());
+        log.info("Reaper finished: {} orders expired in {} chunks", expired, chunks);
+    }
+
+    private int expireChunk(List<Long> candidateIds) {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<ExpiredOrder> expired = transactionTemplate.execute(status -> {
+            List<Object[]> rows = orderRepository.expirePendingOrders(candidateIds, REASON, now);
+            if (rows.isEmpty()) {
+                return List.<ExpiredOrder>of();
+            }
+
+            Map<Long, ExpiredOrder> byId = new HashMap<>(rows.size() * 2);
+            Map<LocalDate, BigDecimal> revenueByDay = new HashMap<>();
+            Map<LocalDate, Long> ordersByDay = new HashMap<>();
+            for (Object[] row : rows) {
+                Long id = ((Number) row[0]).longValue();
+                LocalDate day = toLocalDate(row[2]);
+                byId.put(id, new ExpiredOrder(id, (String) row[1], ((Number) row[4]).longValue(), (String) row[5],
+                        new ArrayList<>()));
+                revenueByDay.merge(day, (BigDecimal) row[3], BigDecimal::add);
+                ordersByDay.merge(day, 1L, Long::sum);
+            }
+            List<Long> ids = new ArrayList<>(byId.keySet());
+
+            orderRepository.insertCancelledHistory(ids, REASON, CHANGED_BY, now);
+
+            List<SalesStatsService.SalesLine> sold = new ArrayList<>();
+            for (Object[] line : orderItemRepository.findStockLinesByOrderIds(ids)) {
+                byId.get((Long) line[0]).lines().add(new long[]{(Long) line[1], (Integer) line[2]});
+                sold.add(new SalesStatsService.SalesLine((Long) line[1], (Integer) line[2], (BigDecimal) line[3]));
+            }
+
+            // Rollups move with the chunk, merged per day and per product
+            ordersByDay.forEach((day, count) -> salesStatsService.moveOrders(
+                    day, Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED, count, revenueByDay.get(day)));
+            salesStatsService.addProductSales(sold, -1);
+            return new ArrayList<>(byId.values());
+        });
+
+        // Events go out only after the chunk has committed
+        expired.forEach(this::publishExpiredEvent);
+
+        expiredCounter.increment(expired.size());
+        skippedCounter.increment(candidateIds.size() - expired.size());
+        return expired.size();
+    }
+
+    private void publishExpiredEvent(ExpiredOrder order) {
+        try {
+            StringBuilder items = new StringBuilder();
+            for (long[] line : order.lines()) {
+                if (items.length() > 0) {
+                    items.append(',');
+                }
+                items.append(String.format("{\"productId\":%d,\"quantity\":%d}", line[0], line[1]));
+            }
+            String message = String.format("{\"orderId\":%d,\"orderNumber\":\"%s\",\"oldStatus\":\"%s\",\"newStatus\":\"%s\",\"items\":[%s]}",
+                    order.id(), order.orderNumber(), Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED, items);
+            eventPublisher.publish(orderStatusChangedTopic, message);
+        } catch (Exception e) {
+            log.error("Failed to publish expiry event for order: {}", order.orderNumber(), e);
+        }
+        orderEventHub.publish(new OrderEventDTO("STATUS_CHANGED", order.id(), order.orderNumber(), order.userId(),
+                Order.OrderStatus.CANCELLED, order.trackingNumber(), LocalDateTime.now()));
+    }
+
+    // Paces chunks so the reaper never exceeds maxOrdersPerSecond
+    private void throttle(int processed, long elapsedNanos) {
+        if (maxOrdersPerSecond <= 0) {
+            return;
+        }
+        long budgetNanos = Duration.ofSeconds(1).toNanos() * processed / maxOrdersPerSecond;
+        long sleepMillis = Duration.ofNanos(budgetNanos - elapsedNanos).toMillis();
+        if (sleepMillis > 0) {
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private record ExpiredOrder(Long id, String orderNumber, Long userId, String trackingNumber, List<long[]> lines) {
+    }
+}
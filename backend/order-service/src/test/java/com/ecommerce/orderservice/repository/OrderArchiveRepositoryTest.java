@@ -0,0 +1,114 @@
+package com.ecommerce.orderservice.repository;
+
+import com.ecommerce.orderservice.dto.OrderExportRow;
+import com.ecommerce.orderservice.entity.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that the user order listing and the export see orders the archival job has moved into
+ * the archive tables, alongside the live ones.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class OrderArchiveRepositoryTest {
+
+    private static final long USER_ID = 7001L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 15, 12, 0);
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withCopyFileToContainer(MountableFile.forHostPath("../../database/postgresql/orders/schema.sql"),
+                    "/docker-entrypoint-initdb.d/schema.sql");
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long recent;
+    private long older;
+    private long archived;
+
+    @BeforeEach
+    void seed() {
+        recent = insert("orders", "ORD-ARCH-RECENT", "PENDING", NOW.minusDays(1));
+        older = insert("orders", "ORD-ARCH-OLDER", "CONFIRMED", NOW.minusMonths(20));
+        archived = insert("orders_archive", "ORD-ARCH-OLD", "DELIVERED", NOW.minusMonths(18));
+        jdbcTemplate.update("INSERT INTO order_items_archive (id, order_id, product_id, product_sku, product_name, " +
+                "quantity, unit_price, total_price, created_at) VALUES (nextval('order_items_id_seq'), ?, 5, 'SKU-5', " +
+                "'Archived item', 2, 10, 20, ?)", archived, NOW.minusMonths(18));
+    }
+
+    @Test
+    void userListingMergesLiveAndArchivedOrdersNewestFirst() {
+        Page<Order> page = orderRepository.findByUserIdIncludingArchive(USER_ID, PageRequest.of(0, 10));
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(Order::getId).containsExactly(recent, archived, older);
+        Order fromArchive = page.getContent().get(1);
+        assertThat(fromArchive.getItems()).singleElement()
+                .satisfies(item -> assertThat(item.getProductName()).isEqualTo("Archived item"));
+    }
+
+    @Test
+    void userListingPagesAcrossBothTablesInTheRequestedOrder() {
+        PageRequest secondPage = PageRequest.of(1, 2, Sort.by("createdAt").ascending());
+
+        Page<Order> page = orderRepository.findByUserIdIncludingArchive(USER_ID, secondPage);
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(Order::getId).containsExactly(recent);
+    }
+
+    @Test
+    void userListingRejectsSortsItCannotApplyToBothTables() {
+        PageRequest bySubtotal = PageRequest.of(0, 10, Sort.by("subtotal"));
+
+        assertThatThrownBy(() -> orderRepository.findByUserIdIncludingArchive(USER_ID, bySubtotal))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class)
+                .hasMessageContaining("subtotal");
+    }
+
+    @Test
+    void exportIncludesArchivedOrdersInTheRange() {
+        List<OrderExportRow> rows;
+        try (Stream<OrderExportRow> stream = orderRepository.streamForExport(NOW.minusMonths(19), NOW)) {
+            rows = stream.filter(row -> row.getUserId() == USER_ID).toList();
+        }
+
+        assertThat(rows).extracting(OrderExportRow::getId).containsExactly(recent, archived);
+        assertThat(rows.get(1).getStatus()).isEqualTo(Order.OrderStatus.DELIVERED);
+        assertThat(rows.get(1).getCreatedAt()).isEqualTo(NOW.minusMonths(18));
+    }
+
+    private long insert(String table, String orderNumber, String status, LocalDateTime createdAt) {
+        return jdbcTemplate.queryForObject("INSERT INTO " + table + " (id, order_number, user_id, user_email, status, " +
+                        "subtotal, tax_amount, shipping_amount, total_amount, created_at) " +
+                        "VALUES (nextval('orders_id_seq'), ?, ?, 'archive@example.com', ?, 20, 0, 0, 20, ?) RETURNING id",
+                Long.class, orderNumber + "-" + System.nanoTime(), USER_ID, status, createdAt);
+    }
+}
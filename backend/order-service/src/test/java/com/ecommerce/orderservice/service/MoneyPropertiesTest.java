@@ -0,0 +1,105 @@
+package com.ecommerce.orderservice.service;
+
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.BigRange;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Scale;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that every Money operation gives the same amount as the BigDecimal arithmetic it
+ * replaced, with the result held at the currency scale.
+ */
+class MoneyPropertiesTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency JPY = Currency.getInstance("JPY");
+    private static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+
+    @Property
+    void conversionRoundsLikeSetScale(@ForAll @BigRange(min = "-1000000000", max = "1000000000") @Scale(6) BigDecimal amount) {
+        Money money = Money.of(amount, USD, ROUNDING);
+
+        assertThat(money.toBigDecimal()).isEqualTo(amount.setScale(2, ROUNDING));
+    }
+
+    @Property
+    void conversionUsesTheCurrencyScale(@ForAll @BigRange(min = "-1000000000", max = "1000000000") @Scale(4) BigDecimal amount) {
+        assertThat(Money.of(amount, JPY, ROUNDING).toBigDecimal()).isEqualTo(amount.setScale(0, ROUNDING));
+    }
+
+    @Property
+    void plusMatchesBigDecimalAdd(@ForAll @BigRange(min = "-1000000000", max = "1000000000") @Scale(2) BigDecimal a,
+                                  @ForAll @BigRange(min = "-1000000000", max = "1000000000") @Scale(2) BigDecimal b) {
+        Money sum = Money.of(a, USD, ROUNDING).plus(Money.of(b, USD, ROUNDING));
+
+        assertThat(sum.toBigDecimal()).isEqualTo(a.add(b).setScale(2, ROUNDING));
+    }
+
+    @Property
+    void minusMatchesBigDecimalSubtract(@ForAll @BigRange(min = "-1000000000", max = "1000000000") @Scale(2) BigDecimal a,
+                                        @ForAll @BigRange(min = "-1000000000", max = "1000000000") @Scale(2) BigDecimal b) {
+        Money difference = Money.of(a, USD, ROUNDING).minus(Money.of(b, USD, ROUNDING));
+
+        assertThat(difference.toBigDecimal()).isEqualTo(a.subtract(b).setScale(2, ROUNDING));
+        assertThat(difference.isNegative()).isEqualTo(a.compareTo(b) < 0);
+    }
+
+    @Property
+    void timesQuantityMatchesBigDecimalMultiply(@ForAll @BigRange(min = "0", max = "1000000") @Scale(2) BigDecimal unitPrice,
+                                                @ForAll @IntRange(min = 0, max = 10000) int quantity) {
+        Money line = Money.of(unitPrice, USD, ROUNDING).times(quantity);
+
+        assertThat(line.toBigDecimal()).isEqualTo(unitPrice.multiply(BigDecimal.valueOf(quantity)).setScale(2, ROUNDING));
+    }
+
+    @Property
+    void timesRateMatchesBigDecimalMultiply(@ForAll @BigRange(min = "-1000000", max = "1000000") @Scale(2) BigDecimal amount,
+                                            @ForAll @BigRange(min = "0", max = "1") @Scale(4) BigDecimal rate,
+                                            @ForAll RoundingMode rounding) {
+        if (rounding == RoundingMode.UNNECESSARY) {
+            return;
+        }
+        Money taxed = Money.of(amount, USD, ROUNDING).times(rate, rounding);
+
+        assertThat(taxed.toBigDecimal()).isEqualTo(amount.multiply(rate).setScale(2, rounding));
+    }
+
+    @Property
+    void orderingMatchesBigDecimalCompare(@ForAll @BigRange(min = "-1000000", max = "1000000") @Scale(2) BigDecimal a,
+                                          @ForAll @BigRange(min = "-1000000", max = "1000000") @Scale(2) BigDecimal b) {
+        Money left = Money.of(a, USD, ROUNDING);
+        Money right = Money.of(b, USD, ROUNDING);
+
+        assertThat(Integer.signum(left.compareTo(right))).isEqualTo(Integer.signum(a.compareTo(b)));
+        assertThat(left.equals(right)).isEqualTo(a.compareTo(b) == 0);
+    }
+
+    @Example
+    void nullIsZero() {
+        assertThat(Money.of(null, USD, ROUNDING)).isEqualTo(Money.zero(USD));
+    }
+
+    @Example
+    void overflowFailsInsteadOfWrapping() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, USD);
+
+        assertThatThrownBy(() -> max.plus(Money.ofMinor(1, USD))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.times(2)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.times(new BigDecimal("1.5"), ROUNDING)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1e20"), USD, ROUNDING)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Example
+    void mixingCurrenciesFails() {
+        assertThatThrownBy(() -> Money.zero(USD).plus(Money.zero(JPY))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
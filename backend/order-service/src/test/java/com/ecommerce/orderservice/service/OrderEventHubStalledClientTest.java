@@ -0,0 +1,190 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderEventDTO;
+import com.ecommerce.orderservice.entity.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the hub behind a real Tomcat and opens more streams than a fixed sender pool would have
+ * threads, from clients that never read. Their writes block once the socket buffers fill; the
+ * hub must drop them after the write timeout while a client that does read keeps getting events.
+ */
+@SpringBootTest(classes = OrderEventHubStalledClientTest.StreamApp.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "server.servlet.context-path=",
+                "orders.events.write-timeout=PT0.5S",
+                "orders.events.buffer-size=1000",
+                "orders.events.heartbeat-interval=PT1H"
+        })
+class OrderEventHubStalledClientTest {
+
+    private static final int STALLED_CLIENTS = 8;
+    private static final long HEALTHY_ORDER = 1_000L;
+    // Large enough that a few dozen events overflow the socket buffers of a client that never reads
+    private static final String BULKY = "X".repeat(256 * 1024);
+
+    // Not a @SpringBootConfiguration, so slice tests in this package still find the application
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            JacksonAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class
+    })
+    @Import(OrderEventHub.class)
+    static class StreamApp {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        StreamController streamController(OrderEventHub hub) {
+            return new StreamController(hub);
+        }
+    }
+
+    @RestController
+    static class StreamController {
+
+        private final OrderEventHub hub;
+
+        StreamController(OrderEventHub hub) {
+            this.hub = hub;
+        }
+
+        @GetMapping("/orders/{orderId}/events")
+        SseEmitter events(@PathVariable Long orderId) {
+            return hub.subscribeToOrder(orderId, () -> null);
+        }
+    }
+
+    @MockBean
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private OrderEventHub hub;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @LocalServerPort
+    private int port;
+
+    private final List<Socket> sockets = new ArrayList<>();
+
+    @AfterEach
+    void closeSockets() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    @Test
+    void clientsThatNeverReadAreDroppedWithoutStallingOthers() throws Exception {
+        for (long orderId = 1; orderId <= STALLED_CLIENTS; orderId++) {
+            open(orderId);
+        }
+        awaitTrue(() -> connections() == STALLED_CLIENTS);
+
+        for (int i = 0; i < 64; i++) {
+            for (long orderId = 1; orderId <= STALLED_CLIENTS; orderId++) {
+                hub.publish(event(orderId, BULKY));
+            }
+        }
+        awaitTrue(() -> meterRegistry.counter("orders.events.write.timeouts").count() == STALLED_CLIENTS);
+        assertThat(connections()).isZero();
+
+        BufferedReader healthy = new BufferedReader(new InputStreamReader(
+                open(HEALTHY_ORDER).getInputStream(), StandardCharsets.UTF_8));
+        awaitTrue(() -> connections() == 1);
+        CompletableFuture<String> delivered = CompletableFuture.supplyAsync(() -> readUntil(healthy, "ORD-HEALTHY"));
+        hub.publish(event(HEALTHY_ORDER, "ORD-HEALTHY"));
+
+        assertThat(delivered.get(5, TimeUnit.SECONDS)).contains("\"orderId\":" + HEALTHY_ORDER);
+    }
+
+    // Raw socket with a tiny receive buffer; nothing reads from it unless the test does
+    private Socket open(long orderId) throws IOException {
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(4096);
+        socket.connect(new InetSocketAddress("localhost", port));
+        sockets.add(socket);
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET /orders/" + orderId + "/events HTTP/1.1\r\nHost: localhost\r\n" +
+                "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+
+    private static String readUntil(BufferedReader reader, String marker) {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.contains(marker)) {
+                    return line;
+                }
+            }
+            throw new IllegalStateException("Stream ended before " + marker);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static OrderEventDTO event(long orderId, String orderNumber) {
+        return new OrderEventDTO("STATUS_CHANGED", orderId, orderNumber, null,
+                Order.OrderStatus.CONFIRMED, null, LocalDateTime.now());
+    }
+
+    private int connections() {
+        return (int) meterRegistry.get("orders.events.connections").gauge().value();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.client.ProductCatalogClient.ProductSnapshot;
+import com.ecommerce.orderservice.dto.CreateOrderRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Covers the failure paths around the catalog lookups and the request checks that must reject an
+ * order before the validator ever sees it.
+ */
+class OrderPricingValidatorTest {
+
+    private final ProductPriceCache priceCache = mock(ProductPriceCache.class);
+    private final OrderPricingValidator validator = new OrderPricingValidator(priceCache, new SimpleMeterRegistry());
+
+    @Test
+    void catalogFailureDuringRefreshIsServiceUnavailable() {
+        when(priceCache.getAll(Set.of(1L))).thenReturn(Map.of(1L, product(new BigDecimal("9.99"))));
+        when(priceCache.refresh(Set.of(1L))).thenThrow(new IllegalStateException("catalog down"));
+
+        assertThatThrownBy(() -> validator.validate(request(item(new BigDecimal("8.99")))))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    void staleCacheEntryIsRecheckedAgainstFreshData() {
+        when(priceCache.getAll(Set.of(1L))).thenReturn(Map.of(1L, product(new BigDecimal("9.99"))));
+        when(priceCache.refresh(Set.of(1L))).thenReturn(Map.of(1L, product(new BigDecimal("8.99"))));
+
+        validator.validate(request(item(new BigDecimal("8.99"))));
+    }
+
+    @Test
+    void itemWithoutUnitPriceFailsRequestValidation() {
+        Validator beanValidator = Validation.buildDefaultValidatorFactory().getValidator();
+
+        assertThat(beanValidator.validate(request(item(null))))
+                .extracting(violation -> violation.getPropertyPath().toString())
+                .containsExactly("items[0].unitPrice");
+    }
+
+    private static ProductSnapshot product(BigDecimal price) {
+        return new ProductSnapshot(1L, "SKU-1", price, 10, true);
+    }
+
+    private static CreateOrderRequest.OrderItemRequest item(BigDecimal unitPrice) {
+        return new CreateOrderRequest.OrderItemRequest(1L, "SKU-1", "Widget", 1, unitPrice, null);
+    }
+
+    private static CreateOrderRequest request(CreateOrderRequest.OrderItemRequest item) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setUserId(42L);
+        request.setUserEmail("pricing@example.com");
+        request.setItems(List.of(item));
+        request.setPaymentMethod("CREDIT_CARD");
+        request.setShippingAddressId(1L);
+        return request;
+    }
+}
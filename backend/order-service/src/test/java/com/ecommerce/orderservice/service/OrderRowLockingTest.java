@@ -0,0 +1,193 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.dto.OrderDTO;
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Interleaves the JPA read-modify-write paths in OrderService with the set-based updates that
+ * touch the same order rows. The JPA writer is parked inside its transaction, after its changes
+ * are staged, while the other writer runs against the same order.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(OrderService.class)
+@Testcontainers(disabledWithoutDocker = true)
+class OrderRowLockingTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withCopyFileToContainer(MountableFile.forHostPath("../../database/postgresql/orders/schema.sql"),
+                    "/docker-entrypoint-initdb.d/schema.sql");
+
+    @MockBean
+    private OrderEventPublisher eventPublisher;
+
+    @MockBean
+    private SalesStatsService salesStatsService;
+
+    @MockBean
+    private OrderTotalsCalculator totalsCalculator;
+
+    @MockBean
+    private OrderEventHub orderEventHub;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService writers = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void stopWriters() {
+        release.countDown();
+        writers.shutdownNow();
+    }
+
+    @Test
+    void expiryWaitsForAnInFlightStatusChangeAndSkipsTheOrder() throws Exception {
+        long orderId = pendingOrder();
+
+        Future<OrderDTO> confirm = startHeld(() -> orderService.updateOrderStatus(
+                orderId, Order.OrderStatus.CONFIRMED, "Confirmed by support", "ADMIN"));
+        Future<List<Object[]>> expiry = writers.submit(() -> transactionTemplate.execute(status ->
+                orderRepository.expirePendingOrders(List.of(orderId), "Expired", LocalDateTime.now())));
+        awaitDoneOrBlocked(expiry);
+        release.countDown();
+
+        assertThat(confirm.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
+        assertThat(expiry.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isEmpty();
+        assertThat(column(orderId, "status")).isEqualTo("CONFIRMED");
+        assertThat(column(orderId, "cancelled_at")).isNull();
+    }
+
+    @Test
+    void paymentWaitsForAnInFlightTrackingUpdateAndBothChangesSurvive() throws Exception {
+        long orderId = pendingOrder();
+
+        Future<OrderDTO> tracking = startHeld(() -> orderService.updateTrackingNumber(orderId, "TRACK-1"));
+        Future<List<Object[]>> payment = writers.submit(() -> transactionTemplate.execute(status ->
+                orderRepository.markOrdersPaid(List.of(orderId), LocalDateTime.now())));
+        awaitDoneOrBlocked(payment);
+        release.countDown();
+
+        tracking.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(payment.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).hasSize(1);
+        assertThat(column(orderId, "tracking_number")).isEqualTo("TRACK-1");
+        assertThat(column(orderId, "payment_status")).isEqualTo("PAID");
+        assertThat(column(orderId, "status")).isEqualTo("CONFIRMED");
+    }
+
+    @Test
+    void trackingUpdateWaitsForAnInFlightPaymentAndKeepsIt() throws Exception {
+        long orderId = pendingOrder();
+        CountDownLatch paid = new CountDownLatch(1);
+
+        Future<?> payment = writers.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            orderRepository.markOrdersPaid(List.of(orderId), LocalDateTime.now());
+            paid.countDown();
+            awaitRelease();
+        }));
+        assertThat(paid.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        Future<OrderDTO> tracking = writers.submit(() -> orderService.updateTrackingNumber(orderId, "TRACK-2"));
+        awaitDoneOrBlocked(tracking);
+        release.countDown();
+
+        payment.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        OrderDTO updated = tracking.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(updated.getPaymentStatus()).isEqualTo("PAID");
+        assertThat(updated.getStatus()).isEqualTo(Order.OrderStatus.CONFIRMED);
+        assertThat(column(orderId, "payment_status")).isEqualTo("PAID");
+        assertThat(column(orderId, "tracking_number")).isEqualTo("TRACK-2");
+    }
+
+    // Parks the writer in OrderEventHub.publish, which runs after save() and before commit
+    private <T> Future<T> startHeld(Callable<T> writer) throws InterruptedException {
+        CountDownLatch inside = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inside.countDown();
+            awaitRelease();
+            return null;
+        }).when(orderEventHub).publish(any());
+
+        Future<T> future = writers.submit(writer);
+        assertThat(inside.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        return future;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Returns once the writer has finished or is waiting on a row lock held by another session
+    private void awaitDoneOrBlocked(Future<?> writer) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!writer.isDone() && System.nanoTime() < deadline) {
+            Integer waiting = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_stat_activity " +
+                    "WHERE datname = current_database() AND wait_event_type = 'Lock'", Integer.class);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        assertThat(writer.isDone()).as("writer neither finished nor blocked").isTrue();
+    }
+
+    private long pendingOrder() {
+        return jdbcTemplate.queryForObject("INSERT INTO orders (order_number, user_id, user_email, status, subtotal, " +
+                        "tax_amount, shipping_amount, total_amount, payment_status, created_at) " +
+                        "VALUES (?, 42, 'lock@example.com', 'PENDING', 10, 0, 0, 10, 'PENDING', now() - interval '2 days') " +
+                        "RETURNING id", Long.class, "ORD-LOCK-" + System.nanoTime());
+    }
+
+    private String column(long orderId, String column) {
+        return jdbcTemplate.queryForObject("SELECT CAST(" + column + " AS TEXT) FROM orders WHERE id = ?",
+                String.class, orderId);
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecommerce.orderservice.service;
+
+import com.ecommerce.orderservice.entity.Order;
+import com.ecommerce.orderservice.entity.OrderItem;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.BigRange;
+import net.jqwik.api.constraints.Scale;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares OrderTotalsCalculator against the same pricing rules written directly in BigDecimal:
+ * amounts rounded to cents on the way in, tax on the discounted line subtotal rounded per line.
+ */
+class OrderTotalsCalculatorPropertiesTest {
+
+    private static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+    private static final BigDecimal TAX_RATE = new BigDecimal("0.0825");
+
+    private final OrderTotalsCalculator calculator = new OrderTotalsCalculator("USD", ROUNDING, TAX_RATE);
+
+    @Property(tries = 500)
+    void totalsMatchBigDecimalArithmetic(@ForAll("items") List<Line> lines,
+                                         @ForAll @BigRange(min = "0", max = "100") @Scale(3) BigDecimal shipping) {
+        Order order = order(lines, shipping);
+
+        calculator.apply(order);
+
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal tax = BigDecimal.ZERO;
+        BigDecimal discount = BigDecimal.ZERO;
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            OrderItem item = order.getItems().get(i);
+
+            BigDecimal unitPrice = line.unitPrice().setScale(2, ROUNDING);
+            BigDecimal lineDiscount = line.discount() == null ? BigDecimal.ZERO.setScale(2) : line.discount().setScale(2, ROUNDING);
+            BigDecimal lineSubtotal = unitPrice.multiply(BigDecimal.valueOf(line.quantity()));
+            BigDecimal lineTax = lineSubtotal.subtract(lineDiscount).multiply(TAX_RATE).setScale(2, ROUNDING);
+
+            assertThat(item.getUnitPrice()).isEqualTo(unitPrice);
+            assertThat(item.getDiscountAmount()).isEqualTo(lineDiscount);
+            assertThat(item.getTaxAmount()).isEqualTo(lineTax);
+            assertThat(item.getTotalPrice()).isEqualTo(lineSubtotal.subtract(lineDiscount).add(lineTax));
+
+            subtotal = subtotal.add(lineSubtotal);
+            tax = tax.add(lineTax);
+            discount = discount.add(lineDiscount);
+        }
+        BigDecimal roundedShipping = shipping.setScale(2, ROUNDING);
+
+        assertThat(order.getSubtotal()).isEqualByComparingTo(subtotal);
+        assertThat(order.getTaxAmount()).isEqualByComparingTo(tax);
+        assertThat(order.getDiscountAmount()).isEqualByComparingTo(discount);
+        assertThat(order.getShippingAmount()).isEqualTo(roundedShipping);
+        assertThat(order.getTotalAmount()).isEqualByComparingTo(subtotal.subtract(discount).add(tax).add(roundedShipping));
+        assertThat(order.getTotalAmount().scale()).isEqualTo(2);
+    }
+
+    @Property(tries = 200)
+    void applyingTwiceChangesNothing(@ForAll("items") List<Line> lines) {
+        Order order = order(lines, new BigDecimal("4.99"));
+        calculator.apply(order);
+        BigDecimal total = order.getTotalAmount();
+        BigDecimal tax = order.getTaxAmount();
+
+        calculator.apply(order);
+
+        assertThat(order.getTotalAmount()).isEqualTo(total);
+        assertThat(order.getTaxAmount()).isEqualTo(tax);
+    }
+
+    @Provide
+    Arbitrary<List<Line>> items() {
+        Arbitrary<BigDecimal> prices = Arbitraries.bigDecimals().between(new BigDecimal("0.001"), new BigDecimal("10000")).ofScale(3);
+        Arbitrary<BigDecimal> discounts = Arbitraries.bigDecimals().between(BigDecimal.ZERO, new BigDecimal("5")).ofScale(3).injectNull(0.3);
+        Arbitrary<Integer> quantities = Arbitraries.integers().between(1, 100);
+        return Combinators.combine(prices, quantities, discounts).as(Line::new).list().ofMinSize(1).ofMaxSize(50);
+    }
+
+    private static Order order(List<Line> lines, BigDecimal shipping) {
+        Order order = new Order();
+        order.setShippingAmount(shipping);
+        for (Line line : lines) {
+            OrderItem item = new OrderItem();
+            item.setUnitPrice(line.unitPrice());
+            item.setQuantity(line.quantity());
+            item.setDiscountAmount(line.discount());
+            order.addItem(item);
+        }
+        return order;
+    }
+
+    record Line(BigDecimal unitPrice, int quantity, BigDecimal discount) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.productservice.controller;
 
+import com.ecommerce.productservice.dto.ProductAvailabilityDTO;
 import com.ecommerce.productservice.dto.ProductDTO;
 import com.ecommerce.productservice.service.ProductService;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +10,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/products")
 @RequiredArgsConstructor
@@ -27,6 +30,11 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts(pageable));
     }
     
+    @GetMapping("/availability")
+    public ResponseEntity<List<ProductAvailabilityDTO>> getAvailability(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(productService.getAvailability(ids));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
         return ResponseEntity.ok(productService.getProductById(id));
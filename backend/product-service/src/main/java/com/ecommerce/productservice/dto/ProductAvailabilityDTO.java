@@ -0,0 +1,18 @@
+package com.ecommerce.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductAvailabilityDTO {
+    private Long id;
+    private String sku;
+    private BigDecimal price;
+    private Integer quantity;
+    private Boolean isActive;
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "processed_messages")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedMessage {
+    
+    @Id
+    @Column(name = "message_id", length = 100)
+    private String messageId;
+    
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+}
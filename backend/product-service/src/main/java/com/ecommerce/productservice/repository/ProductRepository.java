@@ -1,5 +1,6 @@
 package com.ecommerce.productservice.repository;
 
+import com.ecommerce.productservice.dto.ProductAvailabilityDTO;
 import com.ecommerce.productservice.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,4 +30,18 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> searchProducts(@Param("keyword") String keyword, Pageable pageable);
     
     List<Product> findByQuantityLessThanAndIsActiveTrue(Integer threshold);
+    
+    @Query("SELECT new com.ecommerce.productservice.dto.ProductAvailabilityDTO(p.id, p.sku, p.price, p.quantity, p.isActive) " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<ProductAvailabilityDTO> findAvailabilityByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Applies all deltas or none: if any product is missing or would go below zero nothing changes
+    // and no ids are returned. Rows are locked in id order so concurrent consumers cannot deadlock.
+    @Query(value = "WITH d AS (SELECT id, delta FROM unnest(CAST(:productIds AS BIGINT[]), CAST(:deltas AS INTEGER[])) AS d(id, delta)), " +
+           "locked AS (SELECT p.id, COALESCE(p.quantity, 0) + d.delta AS quantity FROM products p JOIN d ON d.id = p.id " +
+           "ORDER BY p.id FOR UPDATE OF p) " +
+           "UPDATE products p SET quantity = l.quantity, updated_at = CURRENT_TIMESTAMP FROM locked l " +
+           "WHERE p.id = l.id AND (SELECT count(*) FROM locked WHERE quantity >= 0) = (SELECT count(*) FROM d) " +
+           "RETURNING p.id", nativeQuery = true)
+    List<Long> applyStockDeltas(@Param("productIds") String productIds, @Param("deltas") String deltas);
 }
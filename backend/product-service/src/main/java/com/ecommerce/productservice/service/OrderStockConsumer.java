@@ -0,0 +1,345 @@
+package com.ecommerce.productservice.service;
+
+import com.ecommerce.productservice.repository.ProcessedMessageRepository;
+import com.ecommerce.productservice.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.spring.pubsub.core.subscriber.PubSubSubscriberTemplate;
+import com.google.cloud.spring.pubsub.support.AcknowledgeablePubsubMessage;
+import com.google.protobuf.Timestamp;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps stock in line with orders: order-created events take stock, cancellations put it back.
+ * Messages are pulled in micro-batches and deduplicated against processed_messages by order id and
+ * event type, so a republished event is caught as well as a redelivered one. A batch is applied as
+ * one merged delta per product in a single UPDATE; if that would take any product below zero, the
+ * batch falls back to applying each order on its own, restocks first. An order that still does not
+ * fit is un-claimed and nacked, so it is retried and eventually dead-lettered instead of lost.
+ * A cancellation only restocks once its order-created event has been applied, either in an earlier
+ * batch or in the same one; until then it is nacked too, so a rejected order never puts back stock
+ * it did not take.
+ * Acks are sent only after the batch commits, so a crash redelivers the batch and the dedupe table
+ * makes the replay a no-op.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "products.stock-consumer.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderStockConsumer {
+
+    private static final String CREATED_PREFIX = "order-created:";
+    private static final String CANCELLED_PREFIX = "order-cancelled:";
+
+    private final PubSubSubscriberTemplate subscriberTemplate;
+    private final ProductRepository productRepository;
+    private final ProcessedMessageRepository processedMessageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Counter duplicateCounter;
+    private final Counter rejectedCounter;
+    private final Counter invalidCounter;
+    private final Counter unmatchedCounter;
+    private final Timer batchTimer;
+    private final Timer lagTimer;
+    private final AtomicLong lastBatchSize = new AtomicLong();
+
+    @Value("${products.stock-consumer.order-created-subscription:order-created-product-stock}")
+    private String orderCreatedSubscription;
+
+    @Value("${products.stock-consumer.order-status-changed-subscription:order-status-changed-product-stock}")
+    private String orderStatusChangedSubscription;
+
+    @Value("${products.stock-consumer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${products.stock-consumer.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${products.stock-consumer.processed-retention:P7D}")
+    private Duration processedRetention;
+
+    public OrderStockConsumer(PubSubSubscriberTemplate subscriberTemplate,
+                              ProductRepository productRepository,
+                              ProcessedMessageRepository processedMessageRepository,
+                              TransactionTemplate transactionTemplate,
+                              CacheManager cacheManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.subscriberTemplate = subscriberTemplate;
+        this.productRepository = productRepository;
+        this.processedMessageRepository = processedMessageRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+
+        this.duplicateCounter = meterRegistry.counter("products.stock.consumer.duplicates");
+        this.rejectedCounter = meterRegistry.counter("products.stock.consumer.rejected");
+        this.invalidCounter = meterRegistry.counter("products.stock.consumer.invalid");
+        this.unmatchedCounter = meterRegistry.counter("products.stock.consumer.unmatched.cancellations");
+        this.batchTimer = Timer.builder("products.stock.consumer.batch.duration")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("products.stock.consumer.lag")
+                .description("Time from publish to commit of a stock event")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gauge("products.stock.consumer.last.batch.size", lastBatchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${products.stock-consumer.poll-interval:PT1S}")
+    public void poll() {
+        for (int i = 0; i < maxBatchesPerPoll && !Thread.currentThread().isInterrupted(); i++) {
+            List<AcknowledgeablePubsubMessage> created = subscriberTemplate.pull(orderCreatedSubscription, batchSize, true);
+            List<AcknowledgeablePubsubMessage> changed = subscriberTemplate.pull(orderStatusChangedSubscription, batchSize, true);
+            if (created.isEmpty() && changed.isEmpty()) {
+                return;
+            }
+
+            processBatch(created, changed);
+            if (created.size() < batchSize && changed.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private void processBatch(List<AcknowledgeablePubsubMessage> created, List<AcknowledgeablePubsubMessage> changed) {
+        List<AcknowledgeablePubsubMessage> all = new ArrayList<>(created.size() + changed.size());
+        Map<String, StockChange> changesByKey = new LinkedHashMap<>();
+        created.forEach(message -> collect(message, -1, all, changesByKey));
+        changed.forEach(message -> collect(message, 1, all, changesByKey));
+
+        BatchResult result;
+        try {
+            result = batchTimer.record(() -> transactionTemplate.execute(status -> apply(changesByKey)));
+        } catch (RuntimeException e) {
+            log.error("Stock batch of {} messages failed, leaving it for redelivery", all.size(), e);
+            subscriberTemplate.nack(all);
+            meterRegistry.counter("products.stock.consumer.messages", "outcome", "failed").increment(all.size());
+            return;
+        }
+
+        // The batch is committed; acking now can at worst cause a redelivery that dedupes to nothing
+        List<AcknowledgeablePubsubMessage> rejected = new ArrayList<>();
+        List<AcknowledgeablePubsubMessage> acked = new ArrayList<>(all.size());
+        for (AcknowledgeablePubsubMessage message : all) {
+            (result.rejected().contains(message) ? rejected : acked).add(message);
+        }
+        subscriberTemplate.ack(acked);
+        if (!rejected.isEmpty()) {
+            subscriberTemplate.nack(rejected);
+        }
+        evict(result.touched());
+
+        long now = System.currentTimeMillis();
+        for (AcknowledgeablePubsubMessage message : acked) {
+            Timestamp published = message.getPubsubMessage().getPublishTime();
+            lagTimer.record(Duration.ofMillis(Math.max(0, now - published.getSeconds() * 1000 - published.getNanos() / 1_000_000)));
+        }
+        lastBatchSize.set(all.size());
+        meterRegistry.counter("products.stock.consumer.messages", "outcome", "acked").increment(acked.size());
+        meterRegistry.counter("products.stock.consumer.messages", "outcome", "rejected").increment(rejected.size());
+    }
+
+    // Unparseable messages are acked without effect so they cannot block the subscription
+    private void collect(AcknowledgeablePubsubMessage message, int sign,
+                         List<AcknowledgeablePubsubMessage> all, Map<String, StockChange> changesByKey) {
+        all.add(message);
+        try {
+            JsonNode event = objectMapper.readTree(message.getPubsubMessage().getData().toStringUtf8());
+            if (sign > 0 && !"CANCELLED".equals(event.path("newStatus").asText())) {
+                return;
+            }
+            long orderId = event.path("orderId").asLong();
+            if (orderId <= 0) {
+                throw new IllegalArgumentException("Missing orderId");
+            }
+
+            Map<Long, Integer> deltas = new TreeMap<>();
+            for (JsonNode item : event.path("items")) {
+                deltas.merge(item.path("productId").asLong(), sign * item.path("quantity").asInt(), Integer::sum);
+            }
+            deltas.values().removeIf(delta -> delta == 0);
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            String key = (sign < 0 ? CREATED_PREFIX : CANCELLED_PREFIX) + orderId;
+            StockChange previous = changesByKey.putIfAbsent(key, new StockChange(message, deltas));
+            if (previous != null) {
+                duplicateCounter.increment();
+            }
+        } catch (Exception e) {
+            invalidCounter.increment();
+            log.error("Ignoring malformed order event {}", message.getPubsubMessage().getMessageId(), e);
+        }
+    }
+
+    private BatchResult apply(Map<String, StockChange> changesByKey) {
+        if (changesByKey.isEmpty()) {
+            return BatchResult.EMPTY;
+        }
+
+        List<String> claimed = new ArrayList<>(processedMessageRepository.claim(toArrayLiteral(changesByKey.keySet(), true)));
+        duplicateCounter.increment(changesByKey.size() - claimed.size());
+        if (claimed.isEmpty()) {
+            return BatchResult.EMPTY;
+        }
+
+        Set<AcknowledgeablePubsubMessage> unmatched = releaseUnmatchedCancellations(claimed, changesByKey);
+        if (claimed.isEmpty()) {
+            return new BatchResult(Set.of(), unmatched);
+        }
+
+        Map<Long, Integer> merged = new TreeMap<>();
+        for (String key : claimed) {
+            changesByKey.get(key).deltas().forEach((productId, delta) -> merged.merge(productId, delta, Integer::sum));
+        }
+        merged.values().removeIf(delta -> delta == 0);
+
+        // All or nothing, so a rejected merge leaves stock as it was for the one-by-one pass
+        List<Long> applied = merged.isEmpty() ? List.of() : applyDeltas(merged);
+        if (applied.size() == merged.size()) {
+            return new BatchResult(new HashSet<>(applied), unmatched);
+        }
+        BatchResult result = applyOneByOne(claimed, changesByKey);
+        result.rejected().addAll(unmatched);
+        return result;
+    }
+
+    // Un-claims cancellations whose order-created event is neither committed nor claimed in this batch
+    private Set<AcknowledgeablePubsubMessage> releaseUnmatchedCancellations(List<String> claimed,
+                                                                           Map<String, StockChange> changesByKey) {
+        Set<String> claimedKeys = new HashSet<>(claimed);
+        Map<String, String> createdKeyByCancellation = new LinkedHashMap<>();
+        for (String key : claimed) {
+            String createdKey = createdKeyFor(key);
+            if (createdKey != null && !claimedKeys.contains(createdKey)) {
+                createdKeyByCancellation.put(key, createdKey);
+            }
+        }
+        if (createdKeyByCancellation.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        Set<String> applied = new HashSet<>(processedMessageRepository.findProcessed(
+                toArrayLiteral(createdKeyByCancellation.values(), true)));
+        List<String> unmatched = createdKeyByCancellation.entrySet().stream()
+                .filter(entry -> !applied.contains(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (unmatched.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        processedMessageRepository.release(toArrayLiteral(unmatched, true));
+        claimed.removeAll(unmatched);
+        unmatchedCounter.increment(unmatched.size());
+        log.warn("No applied order-created event for {}, left for redelivery", unmatched);
+        return unmatched.stream().map(key -> changesByKey.get(key).message()).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    // Restocks go first so a cancellation in the same batch can cover a later order. An order created
+    // and cancelled in this batch is applied as one net change, so it cannot restock on its own.
+    private BatchResult applyOneByOne(List<String> claimed, Map<String, StockChange> changesByKey) {
+        Set<String> claimedKeys = new HashSet<>(claimed);
+        List<String> ordered = new ArrayList<>(claimed);
+        ordered.removeIf(key -> claimedKeys.contains(createdKeyFor(key)));
+        ordered.sort(Comparator.comparing((String key) -> !key.startsWith(CANCELLED_PREFIX)));
+
+        Set<Long> touched = new HashSet<>();
+        Set<AcknowledgeablePubsubMessage> rejected = new HashSet<>();
+        List<String> unclaimed = new ArrayList<>();
+        for (String key : ordered) {
+            StockChange change = changesByKey.get(key);
+            List<String> keys = new ArrayList<>(List.of(key));
+            Map<Long, Integer> deltas = new TreeMap<>(change.deltas());
+            String cancellationKey = CANCELLED_PREFIX + key.substring(key.indexOf(':') + 1);
+            if (key.startsWith(CREATED_PREFIX) && claimedKeys.contains(cancellationKey)) {
+                keys.add(cancellationKey);
+                changesByKey.get(cancellationKey).deltas().forEach((productId, delta) -> deltas.merge(productId, delta, Integer::sum));
+                deltas.values().removeIf(delta -> delta == 0);
+            }
+
+            List<Long> applied = deltas.isEmpty() ? List.of() : applyDeltas(deltas);
+            if (applied.size() == deltas.size()) {
+                touched.addAll(applied);
+            } else {
+                keys.forEach(rejectedKey -> rejected.add(changesByKey.get(rejectedKey).message()));
+                unclaimed.addAll(keys);
+            }
+        }
+
+        if (!unclaimed.isEmpty()) {
+            processedMessageRepository.release(toArrayLiteral(unclaimed, true));
+            rejectedCounter.increment(unclaimed.size());
+            log.warn("Stock change would go below zero or names an unknown product for {}, left for redelivery", unclaimed);
+        }
+        return new BatchResult(touched, rejected);
+    }
+
+    // The order-created key a cancellation depends on, or null for any other key
+    private static String createdKeyFor(String key) {
+        return key.startsWith(CANCELLED_PREFIX) ? CREATED_PREFIX + key.substring(CANCELLED_PREFIX.length()) : null;
+    }
+
+    private List<Long> applyDeltas(Map<Long, Integer> deltas) {
+        return productRepository.applyStockDeltas(toArrayLiteral(deltas.keySet(), false), toArrayLiteral(deltas.values(), false));
+    }
+
+    private void evict(Set<Long> productIds) {
+        Cache cache = cacheManager.getCache("products");
+        if (cache != null) {
+            productIds.forEach(cache::evict);
+        }
+    }
+
+    @Scheduled(cron = "${products.stock-consumer.cleanup-cron:0 15 4 * * *}")
+    public void purgeProcessedMessages() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(processedRetention);
+        Integer deleted = transactionTemplate.execute(status -> processedMessageRepository.deleteProcessedBefore(cutoff));
+        log.info("Purged {} processed message ids older than {}", deleted, cutoff);
+    }
+
+    // Postgres array literal, e.g. {1,2,3} or {"a","b"}
+    private static String toArrayLiteral(Collection<?> values, boolean quote) {
+        return values.stream()
+                .map(value -> quote ? '"' + value.toString().replace("\\", "\\\\").replace("\"", "\\\"") + '"' : value.toString())
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private record StockChange(AcknowledgeablePubsubMessage message, Map<Long, Integer> deltas) {
+    }
+
+    private record BatchResult(Set<Long> touched, Set<AcknowledgeablePubsubMessage> rejected) {
+
+        static final BatchResult EMPTY = new BatchResult(Set.of(), Set.of());
+    }
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.productservice.service;
 
 import com.ecommerce.productservice.dto.CategoryDTO;
+import com.ecommerce.productservice.dto.ProductAvailabilityDTO;
 import com.ecommerce.productservice.dto.ProductDTO;
 import com.ecommerce.productservice.entity.Category;
 import com.ecommerce.productservice.entity.Product;
@@ -12,9 +13,12 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -94,6 +98,14 @@ public class ProductService {
         log.info("Product stock updated: {} - New quantity: {}", id, product.getQuantity());
     }
     
+    @Transactional(readOnly = true)
+    public List<ProductAvailabilityDTO> getAvailability(Collection<Long> ids) {
+        if (ids.size() > 500) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most 500 product ids can be requested at once");
+        }
+        return productRepository.findAvailabilityByIdIn(ids);
+    }
+    
     public List<Product> getLowStockProducts() {
         return productRepository.findByQuantityLessThanAndIsActiveTrue(10);
     }
@@ -119,7 +131,8 @@ public class ProductService {
         return dto;
     }
     
-    private ProductDTO mapToDTO(Product product) {
+    // Package-private so the JMH benchmarks can call it directly
+    ProductDTO mapToDTO(Product product) {
         ProductDTO dto = new ProductDTO();
         dto.setId(product.getId());
         dto.setSku(product.getSku());
@@ -0,0 +1,256 @@
+package com.ecommerce.productservice.service;
+
+import com.google.api.gax.core.CredentialsProvider;
+import com.google.api.gax.core.NoCredentialsProvider;
+import com.google.cloud.spring.pubsub.PubSubAdmin;
+import com.google.cloud.spring.pubsub.core.PubSubTemplate;
+import com.google.cloud.spring.pubsub.support.AcknowledgeablePubsubMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.PubSubEmulatorContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the stock consumer against Postgres and the Pub/Sub emulator. Every test starts with fresh
+ * subscriptions and drives the consumer by calling poll() directly.
+ */
+@SpringBootTest(properties = {
+        "spring.cloud.gcp.project-id=test-project",
+        "products.stock-consumer.poll-interval=PT1H"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class OrderStockConsumerEmulatorTest {
+
+    private static final String CREATED_TOPIC = "order-created";
+    private static final String CHANGED_TOPIC = "order-status-changed";
+    private static final String CREATED_SUBSCRIPTION = "order-created-product-stock";
+    private static final String CHANGED_SUBSCRIPTION = "order-status-changed-product-stock";
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withCopyFileToContainer(MountableFile.forHostPath("../../database/postgresql/products/schema.sql"),
+                    "/docker-entrypoint-initdb.d/schema.sql");
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @Container
+    static final PubSubEmulatorContainer pubsub = new PubSubEmulatorContainer(
+            DockerImageName.parse("gcr.io/google.com/cloudsdktool/google-cloud-cli:441.0.0-emulators"));
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.gcp.pubsub.emulator-host", pubsub::getEmulatorEndpoint);
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+    }
+
+    @TestConfiguration
+    static class EmulatorCredentials {
+
+        @Bean
+        CredentialsProvider googleCredentials() {
+            return NoCredentialsProvider.create();
+        }
+    }
+
+    @Autowired
+    private OrderStockConsumer consumer;
+
+    @Autowired
+    private PubSubAdmin pubSubAdmin;
+
+    @Autowired
+    private PubSubTemplate pubSubTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void resetState() {
+        for (String topic : List.of(CREATED_TOPIC, CHANGED_TOPIC)) {
+            if (pubSubAdmin.getTopic(topic) == null) {
+                pubSubAdmin.createTopic(topic);
+            }
+        }
+        recreateSubscription(CREATED_SUBSCRIPTION, CREATED_TOPIC);
+        recreateSubscription(CHANGED_SUBSCRIPTION, CHANGED_TOPIC);
+
+        jdbcTemplate.update("DELETE FROM processed_messages");
+        jdbcTemplate.update("DELETE FROM products WHERE sku LIKE 'TEST-%'");
+    }
+
+    @Test
+    void restockIsAppliedWhenAnotherOrderInTheBatchIsRejected() {
+        long scarce = product("TEST-SCARCE", 5);
+        long plenty = product("TEST-PLENTY", 10);
+        publish(CREATED_TOPIC, created(2, scarce, 3));
+        pollUntil(() -> quantity(scarce) == 2);
+
+        publish(CREATED_TOPIC, created(1, scarce, 6));
+        publish(CHANGED_TOPIC, cancelled(2, scarce, 3));
+        publish(CREATED_TOPIC, created(3, plenty, 4));
+
+        pollUntil(() -> quantity(scarce) == 5 && quantity(plenty) == 6);
+
+        assertThat(processedKeys()).containsExactlyInAnyOrder("order-created:2", "order-cancelled:2", "order-created:3");
+    }
+
+    @Test
+    void rejectedOrderIsRedeliveredAndAppliedOnceStockArrives() {
+        long scarce = product("TEST-SCARCE", 5);
+        publish(CREATED_TOPIC, created(2, scarce, 3));
+        pollUntil(() -> quantity(scarce) == 2);
+
+        publish(CREATED_TOPIC, created(1, scarce, 5));
+        consumer.poll();
+
+        assertThat(quantity(scarce)).isEqualTo(2);
+        assertThat(processedKeys()).containsExactly("order-created:2");
+
+        publish(CHANGED_TOPIC, cancelled(2, scarce, 3));
+
+        pollUntil(() -> quantity(scarce) == 0);
+        assertThat(processedKeys()).containsExactlyInAnyOrder("order-created:2", "order-cancelled:2", "order-created:1");
+        assertThat(pubSubTemplate.pull(CREATED_SUBSCRIPTION, 10, true)).isEmpty();
+    }
+
+    @Test
+    void cancellingARejectedOrderDoesNotRestock() {
+        long scarce = product("TEST-SCARCE", 2);
+
+        publish(CREATED_TOPIC, created(1, scarce, 6));
+        consumer.poll();
+        publish(CHANGED_TOPIC, cancelled(1, scarce, 6));
+        consumer.poll();
+        consumer.poll();
+
+        assertThat(quantity(scarce)).isEqualTo(2);
+        assertThat(processedKeys()).isEmpty();
+        // Nacked rather than acked, so it restocks once the order is applied or goes to the dead letter topic
+        assertThat(pubSubTemplate.pull(CHANGED_SUBSCRIPTION, 10, true)).hasSize(1);
+    }
+
+    @Test
+    void orderCreatedAndCancelledInOneBatchNetsOut() {
+        long scarce = product("TEST-SCARCE", 2);
+        long plenty = product("TEST-PLENTY", 10);
+
+        // The order alone does not fit, and the other one forces the one-by-one pass
+        publish(CREATED_TOPIC, created(1, scarce, 6));
+        publish(CHANGED_TOPIC, cancelled(1, scarce, 6));
+        publish(CREATED_TOPIC, created(2, plenty, 11));
+        consumer.poll();
+
+        assertThat(quantity(scarce)).isEqualTo(2);
+        assertThat(quantity(plenty)).isEqualTo(10);
+        assertThat(processedKeys()).containsExactlyInAnyOrder("order-created:1", "order-cancelled:1");
+    }
+
+    @Test
+    void republishedEventIsAppliedOnce() {
+        long product = product("TEST-DUP", 10);
+
+        publish(CREATED_TOPIC, created(7, product, 3));
+        pollUntil(() -> quantity(product) == 7);
+
+        // Same order, new Pub/Sub message id, as after a publisher retry
+        publish(CREATED_TOPIC, created(7, product, 3));
+        consumer.poll();
+
+        List<AcknowledgeablePubsubMessage> left = pubSubTemplate.pull(CREATED_SUBSCRIPTION, 10, true);
+        assertThat(left).isEmpty();
+        assertThat(quantity(product)).isEqualTo(7);
+    }
+
+    @Test
+    void statusChangesOtherThanCancellationLeaveStockAlone() {
+        long product = product("TEST-SHIPPED", 10);
+
+        publish(CHANGED_TOPIC, """
+                {"orderId":9,"orderNumber":"ORD-9","oldStatus":"PAID","newStatus":"SHIPPED","items":[{"productId":%d,"quantity":4}]}
+                """.formatted(product));
+        consumer.poll();
+
+        assertThat(quantity(product)).isEqualTo(10);
+        assertThat(processedKeys()).isEmpty();
+    }
+
+    private void recreateSubscription(String subscription, String topic) {
+        if (pubSubAdmin.getSubscription(subscription) != null) {
+            pubSubAdmin.deleteSubscription(subscription);
+        }
+        pubSubAdmin.createSubscription(subscription, topic);
+    }
+
+    private long product(String sku, int quantity) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO products (sku, name, price, quantity) VALUES (?, ?, 9.99, ?) RETURNING id",
+                Long.class, sku, sku, quantity);
+    }
+
+    private int quantity(long productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM products WHERE id = ?", Integer.class, productId);
+    }
+
+    private List<String> processedKeys() {
+        return jdbcTemplate.queryForList("SELECT message_id FROM processed_messages", String.class);
+    }
+
+    private void publish(String topic, String payload) {
+        pubSubTemplate.publish(topic, payload).join();
+    }
+
+    private void pollUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+        while (true) {
+            consumer.poll();
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            assertThat(System.nanoTime()).as("stock did not reach the expected state in time").isLessThan(deadline);
+            sleep(200);
+        }
+    }
+
+    private static String created(long orderId, long productId, int quantity) {
+        return """
+                {"orderId":%d,"orderNumber":"ORD-%d","userId":1,"totalAmount":10.00,"status":"PENDING","items":[{"productId":%d,"quantity":%d}]}
+                """.formatted(orderId, orderId, productId, quantity);
+    }
+
+    private static String cancelled(long orderId, long productId, int quantity) {
+        return """
+                {"orderId":%d,"orderNumber":"ORD-%d","oldStatus":"PENDING","newStatus":"CANCELLED","items":[{"productId":%d,"quantity":%d}]}
+                """.formatted(orderId, orderId, productId, quantity);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.userservice.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+public class OrderHistoryClient {
+    
+    private final RestClient restClient;
+    
+    public OrderHistoryClient(RestClient.Builder builder,
+                              @Value("${services.order.url:http://order-service:8083/api/v1}") String baseUrl,
+                              @Value("${services.order.connect-timeout:PT0.5S}") Duration connectTimeout,
+                              @Value("${services.order.read-timeout:PT1S}") Duration readTimeout) {
+        this.restClient = builder
+                .baseUrl(baseUrl)
+                .requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(connectTimeout)
+                        .withReadTimeout(readTimeout)))
+                .build();
+    }
+    
+    // Newest first; only the summary fields are kept from order-service's OrderDTO
+    public List<OrderSummary> getRecentOrders(Long userId, int limit, String authorization) {
+        OrderPage page = restClient.get()
+                .uri(uri -> uri.path("/orders/user/{userId}")
+                        .queryParam("page", 0)
+                        .queryParam("size", limit)
+                        .queryParam("sort", "createdAt,desc")
+                        .build(userId))
+                .headers(headers -> {
+                    if (authorization != null) {
+                        headers.set(HttpHeaders.AUTHORIZATION, authorization);
+                    }
+                })
+                .retrieve()
+                .body(OrderPage.class);
+        return page != null && page.getContent() != null ? page.getContent() : List.of();
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OrderPage {
+        private List<OrderSummary> content;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OrderSummary {
+        private Long id;
+        private String orderNumber;
+        private String status;
+        private BigDecimal totalAmount;
+        private String trackingNumber;
+        private LocalDateTime createdAt;
+    }
+}
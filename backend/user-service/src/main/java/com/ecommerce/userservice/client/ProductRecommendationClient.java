@@ -0,0 +1,60 @@
+package com.ecommerce.userservice.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+@Component
+public class ProductRecommendationClient {
+    
+    private final RestClient restClient;
+    
+    public ProductRecommendationClient(RestClient.Builder builder,
+                                       @Value("${services.product.url:http://product-service:8082/api/v1}") String baseUrl,
+                                       @Value("${services.product.connect-timeout:PT0.5S}") Duration connectTimeout,
+                                       @Value("${services.product.read-timeout:PT1S}") Duration readTimeout) {
+        this.restClient = builder
+                .baseUrl(baseUrl)
+                .requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(connectTimeout)
+                        .withReadTimeout(readTimeout)))
+                .build();
+    }
+    
+    // There is no per-user recommender yet, so featured products stand in for recommendations
+    public List<ProductSummary> getRecommendedProducts(int limit) {
+        ProductPage page = restClient.get()
+                .uri(uri -> uri.path("/products/featured").queryParam("page", 0).queryParam("size", limit).build())
+                .retrieve()
+                .body(ProductPage.class);
+        return page != null && page.getContent() != null ? page.getContent() : List.of();
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductPage {
+        private List<ProductSummary> content;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductSummary {
+        private Long id;
+        private String sku;
+        private String name;
+        private BigDecimal price;
+        private BigDecimal compareAtPrice;
+        private Double rating;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.userservice.config;
 
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -25,4 +26,11 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
+
+    // Evictions and puts made inside a transaction are applied after it commits, so a concurrent
+    // read cannot re-cache the old row between the eviction and the commit
+    @Bean
+    public RedisCacheManagerBuilderCustomizer transactionAwareCaches() {
+        return builder -> builder.transactionAware();
+    }
 }
@@ -0,0 +1,25 @@
+package com.ecommerce.userservice.config;
+
+import com.ecommerce.userservice.security.UserActiveCache;
+import com.ecommerce.userservice.service.UserLookupService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class UserEventsRedisConfig {
+    
+    // One subscription per node for cross-node cache invalidation
+    @Bean
+    public RedisMessageListenerContainer userEventsListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                     UserActiveCache userActiveCache,
+                                                                     UserLookupService userLookupService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(userActiveCache, new ChannelTopic(userActiveCache.getChannel()));
+        container.addMessageListener(userLookupService, new ChannelTopic(userActiveCache.getChannel()));
+        return container;
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.userservice.controller;
+
+import com.ecommerce.userservice.dto.AddressDTO;
+import com.ecommerce.userservice.dto.AddressRequest;
+import com.ecommerce.userservice.service.AddressService;
+import com.ecommerce.userservice.service.UserService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/users/me/addresses")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "${cors.allowed-origins}")
+public class AddressController {
+    
+    private final AddressService addressService;
+    private final UserService userService;
+    
+    @GetMapping
+    public ResponseEntity<List<AddressDTO>> getAddresses(@AuthenticationPrincipal UserDetails userDetails) {
+        return ResponseEntity.ok(addressService.getAddresses(userService.resolveUserId(userDetails)));
+    }
+    
+    @GetMapping("/default")
+    public ResponseEntity<AddressDTO> getDefaultAddress(@AuthenticationPrincipal UserDetails userDetails) {
+        AddressDTO address = addressService.getDefaultAddress(userService.resolveUserId(userDetails));
+        return address != null ? ResponseEntity.ok(address) : ResponseEntity.noContent().build();
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<AddressDTO> getAddress(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
+        return ResponseEntity.ok(addressService.getAddress(userService.resolveUserId(userDetails), id));
+    }
+    
+    @PostMapping
+    public ResponseEntity<AddressDTO> createAddress(
+            @Valid @RequestBody AddressRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        AddressDTO address = addressService.createAddress(userService.resolveUserId(userDetails), request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(address);
+    }
+    
+    @PutMapping("/{id}")
+    public ResponseEntity<AddressDTO> updateAddress(
+            @PathVariable Long id,
+            @Valid @RequestBody AddressRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        return ResponseEntity.ok(addressService.updateAddress(userService.resolveUserId(userDetails), id, request));
+    }
+    
+    @PutMapping("/{id}/default")
+    public ResponseEntity<Void> setDefaultAddress(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
+        addressService.setDefaultAddress(userService.resolveUserId(userDetails), id);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteAddress(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
+        addressService.deleteAddress(userService.resolveUserId(userDetails), id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,15 +1,24 @@
 package com.ecommerce.userservice.controller;
 
 import com.ecommerce.userservice.dto.*;
+import com.ecommerce.userservice.security.ClientIpResolver;
+import com.ecommerce.userservice.service.AccountOverviewService;
+import com.ecommerce.userservice.service.UserLookupService;
 import com.ecommerce.userservice.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
@@ -17,6 +26,9 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
     
     private final UserService userService;
+    private final UserLookupService userLookupService;
+    private final AccountOverviewService accountOverviewService;
+    private final ClientIpResolver clientIpResolver;
     
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
@@ -25,17 +37,46 @@ public class UserController {
     }
     
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request) {
-        AuthResponse response = userService.login(request);
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request, HttpServletRequest httpRequest) {
+        AuthResponse response = userService.login(request, clientIpResolver.resolve(httpRequest),
+                httpRequest.getHeader(HttpHeaders.USER_AGENT));
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        AuthResponse response = userService.refresh(request);
         return ResponseEntity.ok(response);
     }
     
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        userService.logout(authorization.startsWith("Bearer ") ? authorization.substring(7) : authorization);
+        return ResponseEntity.noContent().build();
+    }
+    
     @GetMapping("/me")
     public ResponseEntity<UserDTO> getCurrentUser(@AuthenticationPrincipal UserDetails userDetails) {
         UserDTO user = userService.getCurrentUser(userDetails.getUsername());
         return ResponseEntity.ok(user);
     }
     
+    // Internal enrichment lookup for other services (X-Service-Token) and admin tooling, keyed by user id
+    @GetMapping("/internal/batch")
+    @PreAuthorize("hasAnyRole('SERVICE', 'ADMIN')")
+    public ResponseEntity<Map<Long, UserSummaryDTO>> getUsersByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(userLookupService.getUsers(ids));
+    }
+    
+    // User, recent orders and recommendations in one round trip; failed sections are listed as unavailable
+    @GetMapping("/me/overview")
+    public ResponseEntity<AccountOverviewDTO> getAccountOverview(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        Long userId = userService.resolveUserId(userDetails);
+        return ResponseEntity.ok(accountOverviewService.getOverview(userDetails.getUsername(), userId, authorization));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<UserDTO> getUserById(@PathVariable String id) {
         UserDTO user = userService.getUserById(id);
@@ -50,4 +91,11 @@ public class UserController {
         UserDTO updatedUser = userService.updateUser(id, userDTO);
         return ResponseEntity.ok(updatedUser);
     }
+    
+    @PatchMapping("/{id}/active")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> setActive(@PathVariable Long id, @RequestParam boolean active) {
+        userService.setActive(id, active);
+        return ResponseEntity.noContent().build();
+    }
 }
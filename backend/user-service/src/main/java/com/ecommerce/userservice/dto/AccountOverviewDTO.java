@@ -0,0 +1,20 @@
+package com.ecommerce.userservice.dto;
+
+import com.ecommerce.userservice.client.OrderHistoryClient.OrderSummary;
+import com.ecommerce.userservice.client.ProductRecommendationClient.ProductSummary;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Sections whose source failed or timed out are null and listed in unavailable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountOverviewDTO {
+    private UserDTO user;
+    private List<OrderSummary> recentOrders;
+    private List<ProductSummary> recommendedProducts;
+    private List<String> unavailable;
+}
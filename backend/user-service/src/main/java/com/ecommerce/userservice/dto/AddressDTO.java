@@ -0,0 +1,22 @@
+package com.ecommerce.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// Serializable because the default address is cached in Redis
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AddressDTO implements Serializable {
+    private Long id;
+    private String addressLine1;
+    private String addressLine2;
+    private String city;
+    private String state;
+    private String postalCode;
+    private String country;
+    private Boolean isDefault;
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.userservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AddressRequest {
+    
+    @NotBlank(message = "Address line 1 is required")
+    @Size(max = 255)
+    private String addressLine1;
+    
+    @Size(max = 255)
+    private String addressLine2;
+    
+    @NotBlank(message = "City is required")
+    @Size(max = 100)
+    private String city;
+    
+    @NotBlank(message = "State is required")
+    @Size(max = 100)
+    private String state;
+    
+    @NotBlank(message = "Postal code is required")
+    @Size(max = 20)
+    private String postalCode;
+    
+    @NotBlank(message = "Country is required")
+    @Size(max = 100)
+    private String country;
+    
+    private Boolean isDefault;
+}
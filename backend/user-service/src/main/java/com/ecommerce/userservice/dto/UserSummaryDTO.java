@@ -0,0 +1,15 @@
+package com.ecommerce.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDTO {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.userservice.repository;
+
+import com.ecommerce.userservice.dto.AddressDTO;
+import com.ecommerce.userservice.entity.Address;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AddressRepository extends JpaRepository<Address, Long> {
+    
+    @Query("SELECT new com.ecommerce.userservice.dto.AddressDTO(a.id, a.addressLine1, a.addressLine2, a.city, a.state, " +
+           "a.postalCode, a.country, a.isDefault) FROM Address a WHERE a.user.id = :userId ORDER BY a.isDefault DESC, a.id")
+    List<AddressDTO> findAllByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT new com.ecommerce.userservice.dto.AddressDTO(a.id, a.addressLine1, a.addressLine2, a.city, a.state, " +
+           "a.postalCode, a.country, a.isDefault) FROM Address a WHERE a.id = :id AND a.user.id = :userId")
+    Optional<AddressDTO> findDTOByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+    
+    // Served by the partial index on (user_id) WHERE is_default
+    @Query("SELECT new com.ecommerce.userservice.dto.AddressDTO(a.id, a.addressLine1, a.addressLine2, a.city, a.state, " +
+           "a.postalCode, a.country, a.isDefault) FROM Address a WHERE a.user.id = :userId AND a.isDefault = true")
+    Optional<AddressDTO> findDefaultByUserId(@Param("userId") Long userId);
+    
+    Optional<Address> findByIdAndUser_Id(Long id, Long userId);
+    
+    boolean existsByUser_Id(Long userId);
+    
+    @Modifying
+    @Query("DELETE FROM Address a WHERE a.id = :id AND a.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+    
+    // Serialises default changes per user; the update below must not run on a stale snapshot
+    @Query(value = "SELECT id FROM users WHERE id = :userId FOR UPDATE", nativeQuery = true)
+    Long lockOwner(@Param("userId") Long userId);
+    
+    // Moves the default flag in one statement: clears the old default and sets the new one
+    @Modifying
+    @Query(value = "UPDATE addresses SET is_default = (id = :addressId), updated_at = CURRENT_TIMESTAMP " +
+            "WHERE user_id = :userId AND (is_default OR id = :addressId) " +
+            "AND EXISTS (SELECT 1 FROM addresses WHERE id = :addressId AND user_id = :userId)",
+            nativeQuery = true)
+    int setDefault(@Param("userId") Long userId, @Param("addressId") Long addressId);
+}
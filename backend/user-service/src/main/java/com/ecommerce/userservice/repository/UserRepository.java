@@ -1,13 +1,66 @@
 package com.ecommerce.userservice.repository;
 
+import com.ecommerce.userservice.dto.UserSummaryDTO;
 import com.ecommerce.userservice.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    
+    // Constructor projection: no entity, so the addresses collection is never touched
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.ecommerce.userservice.dto.UserSummaryDTO(u.id, u.firstName, u.lastName, u.email) " +
+           "FROM User u WHERE u.id IN :ids")
+    List<UserSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT u.isActive FROM User u WHERE u.id = :id")
+    Optional<Boolean> findActiveById(@Param("id") Long id);
+    
+    // User.roles is not mapped; role names come from user_role_mapping joined to user_roles
+    @Query(value = "SELECT r.name FROM user_role_mapping m JOIN user_roles r ON r.id = m.role_id " +
+           "WHERE m.user_id = :userId ORDER BY r.name", nativeQuery = true)
+    List<String> findRoleNames(@Param("userId") Long userId);
+    
+    @Modifying
+    @Query(value = "INSERT INTO user_role_mapping (user_id, role_id) SELECT :userId, r.id FROM user_roles r " +
+           "WHERE r.name IN (:roles) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int assignRoles(@Param("userId") Long userId, @Param("roles") Collection<String> roles);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.isActive = :active, u.updatedAt = CURRENT_TIMESTAMP WHERE u.id = :id")
+    int updateActive(@Param("id") Long id, @Param("active") boolean active);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+    
+    // Arrays are Postgres literals; a login never moves last_login_at backwards
+    @Modifying
+    @Query(value = "UPDATE users u SET last_login_at = v.at " +
+            "FROM unnest(CAST(:ids AS BIGINT[]), CAST(:ats AS TIMESTAMPTZ[])) AS v(id, at) " +
+            "WHERE u.id = v.id AND (u.last_login_at IS NULL OR u.last_login_at < v.at)",
+            nativeQuery = true)
+    int updateLastLogins(@Param("ids") String ids, @Param("ats") String ats);
+    
+    @Modifying
+    @Query(value = "INSERT INTO user_audit_log (user_id, action, ip_address, user_agent, metadata, created_at) " +
+            "SELECT v.user_id, v.action, v.ip, v.agent, jsonb_build_object('count', v.cnt), v.at " +
+            "FROM unnest(CAST(:userIds AS BIGINT[]), CAST(:actions AS VARCHAR[]), CAST(:ips AS VARCHAR[]), " +
+            "CAST(:agents AS TEXT[]), CAST(:counts AS INT[]), CAST(:ats AS TIMESTAMPTZ[])) " +
+            "AS v(user_id, action, ip, agent, cnt, at)",
+            nativeQuery = true)
+    int insertAuditLogs(@Param("userIds") String userIds, @Param("actions") String actions, @Param("ips") String ips,
+                        @Param("agents") String agents, @Param("counts") String counts, @Param("ats") String ats);
 }
@@ -0,0 +1,80 @@
+package com.ecommerce.userservice.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Per-IP throttling of the public authentication endpoints, applied before the request body is
+ * read. Per-account limits need the email from the body and live in {@link LoginAttemptLimiter}.
+ */
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+    
+    private final SlidingWindowRateLimiter rateLimiter;
+    private final ClientIpResolver clientIpResolver;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${security.rate-limit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${security.rate-limit.login-per-ip:30}")
+    private long loginPerIp;
+    
+    @Value("${security.rate-limit.register-per-ip:10}")
+    private long registerPerIp;
+    
+    @Value("${security.rate-limit.refresh-per-ip:60}")
+    private long refreshPerIp;
+    
+    public AuthRateLimitFilter(SlidingWindowRateLimiter rateLimiter, ClientIpResolver clientIpResolver, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.clientIpResolver = clientIpResolver;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || limitFor(request.getServletPath()) == null;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String endpoint = limitFor(request.getServletPath());
+        long limit = switch (endpoint) {
+            case "login" -> loginPerIp;
+            case "refresh" -> refreshPerIp;
+            default -> registerPerIp;
+        };
+        
+        if (!rateLimiter.tryAcquire(endpoint + ":ip:" + clientIpResolver.resolve(request), limit)) {
+            meterRegistry.counter("security.rate.limit.rejected", "endpoint", endpoint, "key", "ip").increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimiter.retryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    private static String limitFor(String path) {
+        return switch (path) {
+            case "/users/login" -> "login";
+            case "/users/register" -> "register";
+            case "/users/refresh" -> "refresh";
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.userservice.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Works out the client address behind the load balancer, for rate limiting and the login audit.
+ */
+@Component
+public class ClientIpResolver {
+    
+    @Value("${security.rate-limit.trusted-proxy-hops:2}")
+    private int trustedProxyHops;
+    
+    // Proxies append to X-Forwarded-For, so the client is trustedProxyHops entries from the end;
+    // anything before that was supplied by the client and is ignored
+    public String resolve(HttpServletRequest request) {
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded == null || forwarded.isBlank() || trustedProxyHops <= 0) {
+            return request.getRemoteAddr();
+        }
+        String[] hops = forwarded.split(",");
+        return hops[Math.max(0, hops.length - trustedProxyHops)].trim();
+    }
+}
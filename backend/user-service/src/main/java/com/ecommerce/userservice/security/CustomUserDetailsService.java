@@ -27,7 +27,7 @@ public class CustomUserDetailsService implements UserDetailsService {
         return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getEmail())
                 .password(user.getPassword())
-                .authorities(user.getRoles().stream()
+                .authorities(userRepository.findRoleNames(user.getId()).stream()
                         .map(SimpleGrantedAuthority::new)
                         .collect(Collectors.toList()))
                 .disabled(!user.isActive())
@@ -0,0 +1,55 @@
+package com.ecommerce.userservice.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * Principal built from access-token claims alone. Account state is not re-read per request;
+ * deactivation is enforced separately through {@link UserActiveCache}.
+ */
+@Getter
+public class JwtUserPrincipal implements UserDetails {
+    
+    private final Long id;
+    private final String email;
+    private final Collection<? extends GrantedAuthority> authorities;
+    
+    public JwtUserPrincipal(Long id, String email, Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.email = email;
+        this.authorities = authorities;
+    }
+    
+    @Override
+    public String getUsername() {
+        return email;
+    }
+    
+    @Override
+    public String getPassword() {
+        return null;
+    }
+    
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+    
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+    
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.userservice.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Per-account limit on failed logins. Only wrong credentials count, so a user who keeps logging in
+ * successfully is never throttled, while guessing against one account stops after the limit no
+ * matter how many addresses it comes from. The check runs before any lookup or password hashing.
+ */
+@Component
+public class LoginAttemptLimiter {
+    
+    private final SlidingWindowRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${security.rate-limit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${security.rate-limit.login-per-account:10}")
+    private long loginPerAccount;
+    
+    public LoginAttemptLimiter(SlidingWindowRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    public void checkAccount(String email) {
+        if (!enabled || email == null) {
+            return;
+        }
+        if (rateLimiter.isLimited(key(email), loginPerAccount)) {
+            meterRegistry.counter("security.rate.limit.rejected", "endpoint", "login", "key", "account").increment();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts for this account");
+        }
+    }
+    
+    public void recordFailure(String email) {
+        if (enabled && email != null) {
+            rateLimiter.record(key(email));
+        }
+    }
+    
+    private static String key(String email) {
+        return "login:account:" + email.trim().toLowerCase();
+    }
+}
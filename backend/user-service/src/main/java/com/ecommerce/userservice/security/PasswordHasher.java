@@ -0,0 +1,119 @@
+package com.ecommerce.userservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a small dedicated pool with a bounded queue. A login storm fills the queue and
+ * is turned away with 429 straight away, instead of pinning every request thread on hashing.
+ */
+@Component
+public class PasswordHasher {
+    
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration waitTimeout;
+    private final String dummyHash;
+    
+    private final Timer verifyTimer;
+    private final Timer encodeTimer;
+    private final Counter rejectedCounter;
+    private final Counter rehashCounter;
+    
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${security.password.threads:0}") int threads,
+                          @Value("${security.password.queue-capacity:64}") int queueCapacity,
+                          @Value("${security.password.wait-timeout:PT5S}") Duration waitTimeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.waitTimeout = waitTimeout;
+        
+        // Half the cores by default so hashing never takes the whole machine
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread t = new Thread(r, "password-hasher-" + sequence.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        
+        // Unknown emails are checked against this so they cost the same as a wrong password
+        this.dummyHash = passwordEncoder.encode("unused-dummy-password");
+        
+        this.verifyTimer = Timer.builder("users.password.hash.duration").tag("operation", "verify")
+                .publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+        this.encodeTimer = Timer.builder("users.password.hash.duration").tag("operation", "encode")
+                .publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+        this.rejectedCounter = meterRegistry.counter("users.password.hash.rejected");
+        this.rehashCounter = meterRegistry.counter("users.password.rehash");
+        meterRegistry.gauge("users.password.hash.queue", Tags.empty(), executor, e -> e.getQueue().size());
+        meterRegistry.gauge("users.password.hash.active", Tags.empty(), executor, ThreadPoolExecutor::getActiveCount);
+    }
+    
+    public boolean matches(String rawPassword, String encodedPassword) {
+        String hash = encodedPassword != null ? encodedPassword : dummyHash;
+        boolean matches = run(() -> verifyTimer.record(() -> passwordEncoder.matches(rawPassword, hash)));
+        return matches && encodedPassword != null;
+    }
+    
+    public String encode(String rawPassword) {
+        return run(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+    
+    // True when the stored hash was made with a lower cost than the one now configured
+    public boolean needsRehash(String encodedPassword) {
+        boolean needed = passwordEncoder.upgradeEncoding(encodedPassword);
+        if (needed) {
+            rehashCounter.increment();
+        }
+        return needed;
+    }
+    
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, please retry shortly");
+        }
+        
+        try {
+            return future.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, please retry shortly");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.userservice.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Refresh-token families in Redis. A family starts at login and holds the id of the one refresh
+ * token currently valid for it; every refresh swaps that id atomically. Presenting an older id
+ * means the token was copied, so the family is deleted and the caller revokes it.
+ */
+@Component
+public class RefreshTokenStore {
+    
+    private static final String KEY_PREFIX = "auth:refresh:family:";
+    
+    // 1 = rotated, 0 = unknown or expired family, -1 = reuse detected (family deleted)
+    private static final RedisScript<Long> ROTATE = new DefaultRedisScript<>(
+            "local current = redis.call('HGET', KEYS[1], 'current') "
+                    + "if not current then return 0 end "
+                    + "if current ~= ARGV[1] then redis.call('DEL', KEYS[1]) return -1 end "
+                    + "redis.call('HSET', KEYS[1], 'current', ARGV[2]) "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[3]) "
+                    + "return 1",
+            Long.class);
+    
+    public enum Rotation { ROTATED, UNKNOWN, REUSED }
+    
+    public record Family(Long userId, List<String> roles) {
+    }
+    
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    
+    public RefreshTokenStore(StringRedisTemplate redisTemplate,
+                             @Value("${jwt.refresh-expiration}") long refreshExpiration) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofMillis(refreshExpiration);
+    }
+    
+    public void create(String familyId, String tokenId, Long userId, Collection<String> roles) {
+        String key = KEY_PREFIX + familyId;
+        redisTemplate.opsForHash().putAll(key, Map.of(
+                "current", tokenId,
+                "uid", String.valueOf(userId),
+                "roles", roles == null ? "" : String.join(",", roles)));
+        redisTemplate.expire(key, ttl);
+    }
+    
+    public Family get(String familyId) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(KEY_PREFIX + familyId);
+        if (entries.isEmpty()) {
+            return null;
+        }
+        String roles = (String) entries.getOrDefault("roles", "");
+        return new Family(Long.valueOf((String) entries.get("uid")),
+                roles.isEmpty() ? List.of() : Arrays.asList(roles.split(",")));
+    }
+    
+    public Rotation rotate(String familyId, String presentedTokenId, String newTokenId) {
+        Long result = redisTemplate.execute(ROTATE, List.of(KEY_PREFIX + familyId),
+                presentedTokenId, newTokenId, String.valueOf(ttl.toMillis()));
+        if (result == null || result == 0) {
+            return Rotation.UNKNOWN;
+        }
+        return result > 0 ? Rotation.ROTATED : Rotation.REUSED;
+    }
+    
+    public void delete(String familyId) {
+        redisTemplate.delete(KEY_PREFIX + familyId);
+    }
+}
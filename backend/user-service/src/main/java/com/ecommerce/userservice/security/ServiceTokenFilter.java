@@ -0,0 +1,52 @@
+package com.ecommerce.userservice.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Authenticates other backend services on the /users/internal endpoints with the shared secret in
+ * X-Service-Token, granting ROLE_SERVICE. Without a configured token the filter does nothing and
+ * those endpoints stay admin-only.
+ */
+@Component
+public class ServiceTokenFilter extends OncePerRequestFilter {
+    
+    public static final String HEADER = "X-Service-Token";
+    
+    private final byte[] serviceToken;
+    
+    public ServiceTokenFilter(@Value("${security.service-token:}") String serviceToken) {
+        this.serviceToken = serviceToken.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return serviceToken.length == 0 || !request.getServletPath().startsWith("/users/internal/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String presented = request.getHeader(HEADER);
+        if (StringUtils.hasText(presented)
+                && MessageDigest.isEqual(serviceToken, presented.getBytes(StandardCharsets.UTF_8))) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    "service", null, List.of(new SimpleGrantedAuthority("ROLE_SERVICE"))));
+        }
+        filterChain.doFilter(request, response);
+    }
+}
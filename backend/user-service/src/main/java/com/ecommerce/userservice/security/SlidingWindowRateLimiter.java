@@ -0,0 +1,153 @@
+package com.ecommerce.userservice.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sliding-window counter shared across nodes without a Redis call per request. Each node counts
+ * locally in per-window buckets and periodically pushes its unsynced increments with one pipelined
+ * INCRBY per changed bucket, learning the cluster-wide totals from the replies; unchanged buckets
+ * are refreshed with a single MGET. Limits are therefore global to within one sync interval.
+ */
+@Component
+@Slf4j
+public class SlidingWindowRateLimiter {
+    
+    private static final String KEY_PREFIX = "ratelimit:";
+    
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    
+    public SlidingWindowRateLimiter(StringRedisTemplate redisTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${security.rate-limit.window:PT1M}") Duration window) {
+        this.redisTemplate = redisTemplate;
+        this.windowMillis = window.toMillis();
+        meterRegistry.gaugeMapSize("security.rate.limit.buckets", Tags.empty(), buckets);
+    }
+    
+    /**
+     * Counts one attempt for the key and returns true if it stays within the limit. Rejected
+     * attempts are counted too, so hammering a blocked key keeps it blocked.
+     */
+    public boolean tryAcquire(String key, long limit) {
+        record(key);
+        return !isLimited(key, limit);
+    }
+    
+    // Whether the key is over the limit, without counting an attempt
+    public boolean isLimited(String key, long limit) {
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+        double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+        
+        Bucket current = buckets.get(bucketKey(key, window));
+        Bucket previous = buckets.get(bucketKey(key, window - 1));
+        double estimate = (current != null ? current.count() : 0) + (previous != null ? previous.count() * previousWeight : 0);
+        return estimate > limit;
+    }
+    
+    public void record(String key) {
+        long window = System.currentTimeMillis() / windowMillis;
+        buckets.computeIfAbsent(bucketKey(key, window), k -> new Bucket(window)).pending.increment();
+    }
+    
+    // Seconds until the oldest counted window has slid out
+    public long retryAfterSeconds() {
+        return Math.max(1, (windowMillis - System.currentTimeMillis() % windowMillis) / 1000);
+    }
+    
+    @Scheduled(fixedDelayString = "${security.rate-limit.sync-interval:PT0.5S}")
+    public void sync() {
+        long oldestLive = System.currentTimeMillis() / windowMillis - 1;
+        buckets.entrySet().removeIf(e -> e.getValue().window < oldestLive);
+        if (buckets.isEmpty()) {
+            return;
+        }
+        
+        // Buckets with new attempts are pushed with INCRBY; idle ones only need the other nodes'
+        // increments, which one MGET at the end of the same pipeline reads in bulk
+        List<String> dirtyKeys = new ArrayList<>();
+        List<Bucket> dirty = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        List<String> idleKeys = new ArrayList<>();
+        List<Bucket> idle = new ArrayList<>();
+        buckets.forEach((key, bucket) -> {
+            long delta = bucket.pending.sumThenReset();
+            if (delta != 0) {
+                dirtyKeys.add(KEY_PREFIX + key);
+                dirty.add(bucket);
+                deltas.add(delta);
+            } else {
+                idleKeys.add(KEY_PREFIX + key);
+                idle.add(bucket);
+            }
+        });
+        
+        long ttlSeconds = Math.max(1, 2 * windowMillis / 1000);
+        try {
+            List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (int i = 0; i < dirtyKeys.size(); i++) {
+                    redis.incrBy(dirtyKeys.get(i), deltas.get(i));
+                    redis.expire(dirtyKeys.get(i), ttlSeconds);
+                }
+                if (!idleKeys.isEmpty()) {
+                    redis.mGet(idleKeys.toArray(String[]::new));
+                }
+                return null;
+            });
+            for (int i = 0; i < dirty.size(); i++) {
+                dirty.get(i).synced = ((Number) replies.get(i * 2)).longValue();
+            }
+            if (!idleKeys.isEmpty()) {
+                List<?> totals = (List<?>) replies.get(replies.size() - 1);
+                for (int i = 0; i < idle.size(); i++) {
+                    Object total = totals.get(i);
+                    idle.get(i).synced = total != null ? Long.parseLong(total.toString()) : 0;
+                }
+            }
+        } catch (Exception e) {
+            // Keep the increments for the next attempt; limits stay node-local meanwhile
+            for (int i = 0; i < dirty.size(); i++) {
+                dirty.get(i).pending.add(deltas.get(i));
+            }
+            log.warn("Rate limit sync to Redis failed, using local counts", e);
+        }
+    }
+    
+    private static String bucketKey(String key, long window) {
+        return key + ":" + window;
+    }
+    
+    private static final class Bucket {
+        
+        private final long window;
+        private final LongAdder pending = new LongAdder();
+        private volatile long synced;
+        
+        Bucket(long window) {
+            this.window = window;
+        }
+        
+        // Cluster total as of the last sync plus this node's attempts since then
+        long count() {
+            return synced + pending.sum();
+        }
+    }
+}
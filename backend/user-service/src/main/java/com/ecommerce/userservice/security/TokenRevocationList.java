@@ -0,0 +1,193 @@
+package com.ecommerce.userservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Revoked token and family ids, kept in a Redis sorted set scored by revocation time and
+ * replicated to every node as a Bloom filter. Most requests carry ids that are not revoked and
+ * are answered by the local filter alone; only a filter hit is confirmed against Redis. Nodes
+ * pull new entries incrementally and rebuild the filter periodically so expired entries drop out.
+ * A revocation made while Redis is unreachable still takes effect on this node at once; its Redis
+ * write is retried on every sync, and other nodes see it once the write lands.
+ */
+@Component
+@Slf4j
+public class TokenRevocationList {
+    
+    private static final String KEY = "auth:revoked";
+    
+    private final StringRedisTemplate redisTemplate;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+    private final long retentionMillis;
+    private final long clockSkewMillis;
+    
+    private final Counter filterHits;
+    private final Counter confirmedCounter;
+    private final MeterRegistry meterRegistry;
+    
+    // Revocations not yet written to Redis, by revocation time
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean redisDown = new AtomicBoolean();
+    
+    private volatile BloomFilter filter;
+    private volatile double lastSeenScore;
+    
+    public TokenRevocationList(StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${security.revocation.expected-entries:100000}") long expectedEntries,
+                               @Value("${security.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${jwt.expiration}") long accessTokenExpiration,
+                               @Value("${security.revocation.clock-skew:PT5S}") Duration clockSkew) {
+        this.redisTemplate = redisTemplate;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        // An entry is useless once every access token it could match has expired
+        this.retentionMillis = accessTokenExpiration;
+        this.clockSkewMillis = clockSkew.toMillis();
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+        
+        this.filterHits = meterRegistry.counter("security.revocation.filter.hits");
+        this.confirmedCounter = meterRegistry.counter("security.revocation.confirmed");
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize("security.revocation.pending", Tags.empty(), pending);
+    }
+    
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+    
+    // Never fails the caller: the id is revoked locally first and a failed Redis write is retried by sync()
+    public void revoke(String id) {
+        long now = System.currentTimeMillis();
+        filter.put(id);
+        pending.put(id, now);
+        try {
+            redisTemplate.opsForZSet().add(KEY, id, now);
+            pending.remove(id, now);
+            recovered();
+        } catch (Exception e) {
+            failed("revoke", e);
+        }
+    }
+    
+    // True if any of the ids (token id, family id) has been revoked
+    public boolean isRevoked(String... ids) {
+        for (String id : ids) {
+            if (id != null && filter.mightContain(id) && confirm(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Fails closed: a filter hit that cannot be checked is treated as revoked
+    private boolean confirm(String id) {
+        filterHits.increment();
+        boolean revoked;
+        try {
+            revoked = pending.containsKey(id) || redisTemplate.opsForZSet().score(KEY, id) != null;
+        } catch (Exception e) {
+            log.warn("Could not confirm revocation of {}, rejecting the token", id, e);
+            revoked = true;
+        }
+        if (revoked) {
+            confirmedCounter.increment();
+        }
+        return revoked;
+    }
+    
+    // Scores come from each node's clock, so the window is widened by the allowed skew;
+    // re-adding an id already in the filter is harmless
+    @Scheduled(fixedDelayString = "${security.revocation.sync-interval:PT2S}")
+    public void sync() {
+        try {
+            flushPending();
+            Set<ZSetOperations.TypedTuple<String>> added = redisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(KEY, lastSeenScore - clockSkewMillis, Double.POSITIVE_INFINITY);
+            BloomFilter current = filter;
+            lastSeenScore = load(current, added, lastSeenScore);
+            recovered();
+        } catch (Exception e) {
+            failed("sync", e);
+        }
+    }
+    
+    // Written with the current time so other nodes' incremental syncs, which only look forward, pick them up
+    private void flushPending() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        for (Map.Entry<String, Long> entry : pending.entrySet()) {
+            if (entry.getValue() >= cutoff) {
+                redisTemplate.opsForZSet().add(KEY, entry.getKey(), System.currentTimeMillis());
+            }
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${security.revocation.rebuild-interval:PT1H}",
+            initialDelayString = "${security.revocation.rebuild-interval:PT1H}")
+    public void rebuild() {
+        try {
+            long now = System.currentTimeMillis();
+            redisTemplate.opsForZSet().removeRangeByScore(KEY, Double.NEGATIVE_INFINITY, now - retentionMillis);
+            
+            Set<ZSetOperations.TypedTuple<String>> all = redisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(KEY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            BloomFilter rebuilt = new BloomFilter(expectedEntries, falsePositiveRate);
+            // Revocations made while loading are picked up by the next sync, which starts from here
+            double seen = load(rebuilt, all, now - clockSkewMillis);
+            // Unwritten revocations exist only locally and must survive the swap
+            pending.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+            lastSeenScore = seen;
+            recovered();
+            log.info("Revocation filter rebuilt with {} entries", all != null ? all.size() : 0);
+        } catch (Exception e) {
+            failed("rebuild", e);
+        }
+    }
+    
+    // Every failure is counted, but an outage is logged once when it starts and once when it ends
+    private void failed(String operation, Exception e) {
+        meterRegistry.counter("security.revocation.redis.failures", "operation", operation).increment();
+        if (redisDown.compareAndSet(false, true)) {
+            log.warn("Revocation list cannot reach Redis ({} failed), serving from the local filter and retrying on sync",
+                    operation, e);
+        }
+    }
+    
+    private void recovered() {
+        if (redisDown.compareAndSet(true, false)) {
+            log.info("Revocation list reached Redis again, {} pending revocations left to write", pending.size());
+        }
+    }
+    
+    private static double load(BloomFilter target, Set<ZSetOperations.TypedTuple<String>> entries, double since) {
+        double maxScore = since;
+        if (entries != null) {
+            for (ZSetOperations.TypedTuple<String> entry : entries) {
+                target.put(entry.getValue());
+                if (entry.getScore() != null) {
+                    maxScore = Math.max(maxScore, entry.getScore());
+                }
+            }
+        }
+        return maxScore;
+    }
+}
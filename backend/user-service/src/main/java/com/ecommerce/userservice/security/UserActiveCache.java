@@ -0,0 +1,90 @@
+package com.ecommerce.userservice.security;
+
+import com.ecommerce.userservice.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Short-lived per-node cache of each user's active flag, so claims-based authentication can
+ * honour deactivation without a query per request. Changes are broadcast over Redis pub/sub
+ * and every node drops its entry; the TTL bounds staleness if a broadcast is missed.
+ */
+@Component
+@Slf4j
+public class UserActiveCache implements MessageListener {
+    
+    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final LoadingCache<Long, Boolean> activeFlags;
+    private final String channel;
+    
+    public UserActiveCache(UserRepository userRepository,
+                           StringRedisTemplate redisTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${security.active-cache.channel:users:active-invalidation}") String channel,
+                           @Value("${security.active-cache.ttl:PT30S}") Duration ttl,
+                           @Value("${security.active-cache.max-size:100000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.activeFlags = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(userId -> userRepository.findActiveById(userId).orElse(false));
+        CaffeineCacheMetrics.monitor(meterRegistry, activeFlags, "users.active");
+    }
+    
+    public String getChannel() {
+        return channel;
+    }
+    
+    public boolean isActive(Long userId) {
+        return Boolean.TRUE.equals(activeFlags.get(userId));
+    }
+    
+    // Called inside the writing transaction; the broadcast goes out once it commits
+    public void invalidate(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast(userId);
+                }
+            });
+        } else {
+            broadcast(userId);
+        }
+    }
+    
+    private void broadcast(Long userId) {
+        activeFlags.invalidate(userId);
+        try {
+            redisTemplate.convertAndSend(channel, String.valueOf(userId));
+        } catch (Exception e) {
+            log.warn("Failed to broadcast active-flag invalidation for user {}", userId, e);
+        }
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            activeFlags.invalidate(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed active-flag invalidation");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.client.OrderHistoryClient;
+import com.ecommerce.userservice.client.OrderHistoryClient.OrderSummary;
+import com.ecommerce.userservice.client.ProductRecommendationClient;
+import com.ecommerce.userservice.client.ProductRecommendationClient.ProductSummary;
+import com.ecommerce.userservice.dto.AccountOverviewDTO;
+import com.ecommerce.userservice.dto.UserDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds the account page in one request. The order and product calls each run on their own
+ * virtual thread, scoped to the request, while the user is loaded on the request thread, so the
+ * response takes as long as the slowest branch rather than the sum. Each branch has its own
+ * deadline; a branch that fails or misses it is cancelled and leaves its section empty instead of
+ * failing the page. No branch outlives the request.
+ */
+@Service
+@Slf4j
+public class AccountOverviewService {
+    
+    private static final String BRANCH_USER = "user";
+    private static final String BRANCH_ORDERS = "orders";
+    private static final String BRANCH_PRODUCTS = "products";
+    
+    private final UserService userService;
+    private final OrderHistoryClient orderHistoryClient;
+    private final ProductRecommendationClient productRecommendationClient;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${users.overview.recent-orders:5}")
+    private int recentOrders;
+    
+    @Value("${users.overview.recommended-products:8}")
+    private int recommendedProducts;
+    
+    @Value("${users.overview.orders-timeout:PT1S}")
+    private Duration ordersTimeout;
+    
+    @Value("${users.overview.products-timeout:PT1S}")
+    private Duration productsTimeout;
+    
+    public AccountOverviewService(UserService userService,
+                                  OrderHistoryClient orderHistoryClient,
+                                  ProductRecommendationClient productRecommendationClient,
+                                  MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.orderHistoryClient = orderHistoryClient;
+        this.productRecommendationClient = productRecommendationClient;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    public AccountOverviewDTO getOverview(String email, Long userId, String authorization) {
+        // Closing the executor waits for every branch, so cancelled ones are finished before returning
+        try (ExecutorService branches = Executors.newVirtualThreadPerTaskExecutor()) {
+            Branch<List<OrderSummary>> orders = fork(branches, BRANCH_ORDERS, ordersTimeout,
+                    () -> orderHistoryClient.getRecentOrders(userId, recentOrders, authorization));
+            Branch<List<ProductSummary>> products = fork(branches, BRANCH_PRODUCTS, productsTimeout,
+                    () -> productRecommendationClient.getRecommendedProducts(recommendedProducts));
+            
+            // Runs here so the replica routing and security context of the request still apply
+            List<String> unavailable = new ArrayList<>();
+            UserDTO user = null;
+            long start = System.nanoTime();
+            try {
+                user = userService.getCurrentUser(email);
+                record(BRANCH_USER, "success", start);
+            } catch (RuntimeException e) {
+                record(BRANCH_USER, "error", start);
+                log.warn("Account overview: user branch failed for {}", userId, e);
+                unavailable.add(BRANCH_USER);
+            }
+            
+            List<OrderSummary> orderList = join(orders, unavailable);
+            List<ProductSummary> productList = join(products, unavailable);
+            return new AccountOverviewDTO(user, orderList, productList, unavailable);
+        }
+    }
+    
+    private <T> Branch<T> fork(ExecutorService branches, String name, Duration timeout, Supplier<T> call) {
+        long start = System.nanoTime();
+        return new Branch<>(name, start, start + timeout.toNanos(), branches.submit(call::get));
+    }
+    
+    // Waits until the branch's own deadline; a late branch is interrupted, which aborts its HTTP call
+    private <T> T join(Branch<T> branch, List<String> unavailable) {
+        String outcome = "error";
+        try {
+            T result = branch.future().get(Math.max(0, branch.deadlineNanos() - System.nanoTime()), TimeUnit.NANOSECONDS);
+            outcome = "success";
+            return result;
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            branch.future().cancel(true);
+            log.warn("Account overview: {} branch timed out", branch.name());
+        } catch (ExecutionException e) {
+            log.warn("Account overview: {} branch unavailable: {}", branch.name(), e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            branch.future().cancel(true);
+        } finally {
+            record(branch.name(), outcome, branch.startNanos());
+        }
+        unavailable.add(branch.name());
+        return null;
+    }
+    
+    private void record(String branch, String outcome, long startNanos) {
+        Timer.builder("users.overview.branch.duration")
+                .tag("branch", branch)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private record Branch<T>(String name, long startNanos, long deadlineNanos, Future<T> future) {
+    }
+}
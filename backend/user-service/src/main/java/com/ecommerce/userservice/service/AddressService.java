@@ -0,0 +1,118 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.dto.AddressDTO;
+import com.ecommerce.userservice.dto.AddressRequest;
+import com.ecommerce.userservice.entity.Address;
+import com.ecommerce.userservice.entity.User;
+import com.ecommerce.userservice.repository.AddressRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Address book. Reads use DTO projections, so the user's address collection is never loaded;
+ * the default address is one indexed row and is cached per user until an address changes. The
+ * cache manager is transaction-aware, so the evictions below take effect after commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AddressService {
+    
+    private final AddressRepository addressRepository;
+    private final EntityManager entityManager;
+    
+    @Transactional(readOnly = true)
+    public List<AddressDTO> getAddresses(Long userId) {
+        return addressRepository.findAllByUserId(userId);
+    }
+    
+    @Transactional(readOnly = true)
+    public AddressDTO getAddress(Long userId, Long addressId) {
+        return addressRepository.findDTOByIdAndUserId(addressId, userId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Address not found"));
+    }
+    
+    // Null when the user has no default address
+    @Cacheable(value = "defaultAddresses", key = "#userId", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public AddressDTO getDefaultAddress(Long userId) {
+        return addressRepository.findDefaultByUserId(userId).orElse(null);
+    }
+    
+    @CacheEvict(value = "defaultAddresses", key = "#userId")
+    @Transactional
+    public AddressDTO createAddress(Long userId, AddressRequest request) {
+        // The first address becomes the default whatever the request says
+        boolean makeDefault = Boolean.TRUE.equals(request.getIsDefault()) || !addressRepository.existsByUser_Id(userId);
+        
+        Address address = new Address();
+        address.setUser(entityManager.getReference(User.class, userId));
+        apply(address, request);
+        address.setCreatedAt(address.getUpdatedAt());
+        Address saved = addressRepository.saveAndFlush(address);
+        
+        if (makeDefault) {
+            moveDefault(userId, saved.getId());
+        }
+        log.info("Address {} added for user {}", saved.getId(), userId);
+        return getAddress(userId, saved.getId());
+    }
+    
+    @CacheEvict(value = "defaultAddresses", key = "#userId")
+    @Transactional
+    public AddressDTO updateAddress(Long userId, Long addressId, AddressRequest request) {
+        Address address = addressRepository.findByIdAndUser_Id(addressId, userId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Address not found"));
+        apply(address, request);
+        addressRepository.saveAndFlush(address);
+        
+        if (Boolean.TRUE.equals(request.getIsDefault()) && !address.isDefault()) {
+            moveDefault(userId, addressId);
+        }
+        return getAddress(userId, addressId);
+    }
+    
+    @CacheEvict(value = "defaultAddresses", key = "#userId")
+    @Transactional
+    public void setDefaultAddress(Long userId, Long addressId) {
+        moveDefault(userId, addressId);
+        log.info("Default address of user {} set to {}", userId, addressId);
+    }
+    
+    // Removing the default address leaves the user without one until another is chosen
+    @CacheEvict(value = "defaultAddresses", key = "#userId")
+    @Transactional
+    public void deleteAddress(Long userId, Long addressId) {
+        if (addressRepository.deleteByIdAndUserId(addressId, userId) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Address not found");
+        }
+        log.info("Address {} of user {} deleted", addressId, userId);
+    }
+    
+    private void moveDefault(Long userId, Long addressId) {
+        addressRepository.lockOwner(userId);
+        if (addressRepository.setDefault(userId, addressId) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Address not found");
+        }
+    }
+    
+    private void apply(Address address, AddressRequest request) {
+        address.setAddressLine1(request.getAddressLine1());
+        address.setAddressLine2(request.getAddressLine2());
+        address.setCity(request.getCity());
+        address.setState(request.getState());
+        address.setPostalCode(request.getPostalCode());
+        address.setCountry(request.getCountry());
+        address.setUpdatedAt(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,188 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind recorder for login activity. Logins only enqueue an event; a scheduled flush
+ * drains the queue, keeps the latest login per user and collapses repeated audit events, then
+ * writes everything with one UPDATE and one INSERT. Activity is best-effort: when the queue is
+ * full new events are dropped rather than slowing logins down.
+ */
+@Component
+@Slf4j
+public class LoginActivityRecorder {
+    
+    public static final String ACTION_LOGIN = "LOGIN";
+    public static final String ACTION_LOGIN_FAILED = "LOGIN_FAILED";
+    
+    private static final int MAX_USER_AGENT_LENGTH = 512;
+    
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final ConcurrentLinkedQueue<LoginEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final Counter lastLoginCounter;
+    private final Counter auditCounter;
+    private final Timer flushTimer;
+    
+    @Value("${security.login-activity.max-queue:50000}")
+    private int maxQueue;
+    
+    @Value("${security.login-activity.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${security.login-activity.max-batches-per-flush:20}")
+    private int maxBatchesPerFlush;
+    
+    public LoginActivityRecorder(UserRepository userRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        
+        meterRegistry.gauge("users.login.activity.queue", depth);
+        this.droppedCounter = meterRegistry.counter("users.login.activity.dropped");
+        this.failedCounter = meterRegistry.counter("users.login.activity.failed");
+        this.lastLoginCounter = meterRegistry.counter("users.login.activity.written", "kind", "last_login");
+        this.auditCounter = meterRegistry.counter("users.login.activity.written", "kind", "audit");
+        this.flushTimer = Timer.builder("users.login.activity.flush.duration")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+    
+    public void recordLogin(Long userId, String clientIp, String userAgent) {
+        enqueue(new LoginEvent(userId, ACTION_LOGIN, clientIp, truncate(userAgent), Instant.now()));
+    }
+    
+    public void recordFailure(Long userId, String clientIp, String userAgent) {
+        enqueue(new LoginEvent(userId, ACTION_LOGIN_FAILED, clientIp, truncate(userAgent), Instant.now()));
+    }
+    
+    private void enqueue(LoginEvent event) {
+        if (depth.incrementAndGet() > maxQueue) {
+            depth.decrementAndGet();
+            droppedCounter.increment();
+            return;
+        }
+        queue.offer(event);
+    }
+    
+    @Scheduled(fixedDelayString = "${security.login-activity.flush-interval:PT1S}")
+    public void flush() {
+        flush(maxBatchesPerFlush);
+    }
+    
+    private void flush(int maxBatches) {
+        for (int i = 0; i < maxBatches && !queue.isEmpty(); i++) {
+            List<LoginEvent> batch = new ArrayList<>(Math.min(batchSize, depth.get()));
+            LoginEvent event;
+            while (batch.size() < batchSize && (event = queue.poll()) != null) {
+                batch.add(event);
+            }
+            depth.addAndGet(-batch.size());
+            
+            try {
+                flushTimer.record(() -> write(batch));
+            } catch (RuntimeException e) {
+                failedCounter.increment(batch.size());
+                log.error("Failed to write {} login activity events, dropping them", batch.size(), e);
+                return;
+            }
+        }
+    }
+    
+    private void write(List<LoginEvent> batch) {
+        // Latest successful login per user, in id order so concurrent flushes lock rows in the same order
+        Map<Long, Instant> lastLogins = batch.stream()
+                .filter(event -> ACTION_LOGIN.equals(event.action()))
+                .collect(Collectors.toMap(LoginEvent::userId, LoginEvent::at, (a, b) -> a.isAfter(b) ? a : b, TreeMap::new));
+        
+        // Identical events within the batch become one audit row with a count
+        Map<AuditKey, List<LoginEvent>> audits = batch.stream()
+                .collect(Collectors.groupingBy(AuditKey::of, LinkedHashMap::new, Collectors.toList()));
+        
+        List<Long> userIds = new ArrayList<>(audits.size());
+        List<String> actions = new ArrayList<>(audits.size());
+        List<String> ips = new ArrayList<>(audits.size());
+        List<String> agents = new ArrayList<>(audits.size());
+        List<Integer> counts = new ArrayList<>(audits.size());
+        List<Instant> ats = new ArrayList<>(audits.size());
+        audits.forEach((key, events) -> {
+            userIds.add(key.userId());
+            actions.add(key.action());
+            ips.add(key.clientIp());
+            agents.add(key.userAgent());
+            counts.add(events.size());
+            ats.add(events.stream().map(LoginEvent::at).max(Instant::compareTo).orElseThrow());
+        });
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!lastLogins.isEmpty()) {
+                userRepository.updateLastLogins(toArrayLiteral(lastLogins.keySet(), false),
+                        toArrayLiteral(lastLogins.values(), true));
+            }
+            userRepository.insertAuditLogs(toArrayLiteral(userIds, false), toArrayLiteral(actions, true),
+                    toArrayLiteral(ips, true), toArrayLiteral(agents, true),
+                    toArrayLiteral(counts, false), toArrayLiteral(ats, true));
+        });
+        lastLoginCounter.increment(lastLogins.size());
+        auditCounter.increment(audits.size());
+    }
+    
+    // Logins made before shutdown still reach the database
+    @PreDestroy
+    public void drain() {
+        int pending = depth.get();
+        if (pending > 0) {
+            log.info("Flushing {} pending login activity events before shutdown", pending);
+            flush(Integer.MAX_VALUE);
+        }
+    }
+    
+    // Postgres array literal; nulls stay unquoted so they are read as NULL
+    private static String toArrayLiteral(Collection<?> values, boolean quote) {
+        return values.stream()
+                .map(value -> value == null ? "NULL"
+                        : quote ? '"' + value.toString().replace("\\", "\\\\").replace("\"", "\\\"") + '"'
+                        : value.toString())
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+    
+    private static String truncate(String userAgent) {
+        return userAgent == null || userAgent.length() <= MAX_USER_AGENT_LENGTH
+                ? userAgent : userAgent.substring(0, MAX_USER_AGENT_LENGTH);
+    }
+    
+    private record LoginEvent(Long userId, String action, String clientIp, String userAgent, Instant at) {
+    }
+    
+    private record AuditKey(Long userId, String action, String clientIp, String userAgent) {
+        static AuditKey of(LoginEvent event) {
+            return new AuditKey(event.userId(), event.action(), event.clientIp(), event.userAgent());
+        }
+    }
+}
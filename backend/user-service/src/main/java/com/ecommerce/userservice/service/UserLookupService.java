@@ -0,0 +1,202 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.dto.UserSummaryDTO;
+import com.ecommerce.userservice.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves many users at once for enrichment by other services. Each id is looked up in the
+ * node-local cache first, the rest with one Redis MGET, and whatever is still missing with one
+ * IN query; database hits are written back to both caches. Changes to a user clear the Redis
+ * entry and, via the shared invalidation channel, every node's local entry.
+ */
+@Service
+@Slf4j
+public class UserLookupService implements MessageListener {
+    
+    private static final String KEY_PREFIX = "users:summary:";
+    
+    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Cache<Long, UserSummaryDTO> localCache;
+    
+    @Value("${users.batch-lookup.max-ids:200}")
+    private int maxIds;
+    
+    @Value("${users.batch-lookup.redis-ttl:PT5M}")
+    private Duration redisTtl;
+    
+    public UserLookupService(UserRepository userRepository,
+                             StringRedisTemplate redisTemplate,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${users.batch-lookup.local-ttl:PT30S}") Duration localTtl,
+                             @Value("${users.batch-lookup.local-max-size:50000}") long localMaxSize) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "users.summary");
+    }
+    
+    // Unknown ids are simply absent from the result
+    public Map<Long, UserSummaryDTO> getUsers(Collection<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > maxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxIds + " user ids can be requested at once");
+        }
+        
+        Map<Long, UserSummaryDTO> result = new LinkedHashMap<>(localCache.getAllPresent(requested));
+        List<Long> missing = requested.stream().filter(id -> !result.containsKey(id)).toList();
+        count("local", result.size());
+        if (missing.isEmpty()) {
+            return result;
+        }
+        
+        List<Long> fromDatabase = new ArrayList<>(fetchFromRedis(missing, result));
+        if (fromDatabase.isEmpty()) {
+            return result;
+        }
+        
+        List<UserSummaryDTO> loaded = userRepository.findSummariesByIdIn(fromDatabase);
+        count("database", loaded.size());
+        loaded.forEach(user -> {
+            result.put(user.getId(), user);
+            localCache.put(user.getId(), user);
+        });
+        writeToRedis(loaded);
+        return result;
+    }
+    
+    // Returns the ids Redis did not have; Redis being down just sends everything to the database
+    private List<Long> fetchFromRedis(List<Long> ids, Map<Long, UserSummaryDTO> result) {
+        List<String> values;
+        try {
+            values = redisTemplate.opsForValue().multiGet(ids.stream().map(id -> KEY_PREFIX + id).toList());
+        } catch (Exception e) {
+            log.warn("User summary lookup in Redis failed, falling back to the database", e);
+            return ids;
+        }
+        
+        List<Long> missing = new ArrayList<>();
+        int hits = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            UserSummaryDTO user = values != null ? read(values.get(i)) : null;
+            if (user != null) {
+                result.put(ids.get(i), user);
+                localCache.put(ids.get(i), user);
+                hits++;
+            } else {
+                missing.add(ids.get(i));
+            }
+        }
+        count("redis", hits);
+        return missing;
+    }
+    
+    private void writeToRedis(List<UserSummaryDTO> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, String> entries = new LinkedHashMap<>();
+            for (UserSummaryDTO user : users) {
+                entries.put(KEY_PREFIX + user.getId(), objectMapper.writeValueAsString(user));
+            }
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                entries.forEach((key, value) -> redis.setEx(key, redisTtl.toSeconds(), value));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to cache {} user summaries in Redis", users.size(), e);
+        }
+    }
+    
+    /**
+     * Drops the shared Redis entry once the surrounding transaction commits. Call before
+     * {@code UserActiveCache.invalidate}, whose broadcast clears the local entries, so no node
+     * can refill its local cache from the stale Redis value.
+     */
+    public void evict(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteFromRedis(userId);
+                }
+            });
+        } else {
+            deleteFromRedis(userId);
+        }
+    }
+    
+    private void deleteFromRedis(Long userId) {
+        localCache.invalidate(userId);
+        try {
+            redisTemplate.delete(KEY_PREFIX + userId);
+        } catch (Exception e) {
+            log.warn("Failed to evict user summary {} from Redis", userId, e);
+        }
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            localCache.invalidate(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed user invalidation");
+        }
+    }
+    
+    private UserSummaryDTO read(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, UserSummaryDTO.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+    
+    private void count(String source, int hits) {
+        if (hits > 0) {
+            meterRegistry.counter("users.batch.lookup.resolved", "source", source).increment(hits);
+        }
+    }
+}
@@ -3,18 +3,28 @@ package com.ecommerce.userservice.service;
 import com.ecommerce.userservice.dto.*;
 import com.ecommerce.userservice.entity.User;
 import com.ecommerce.userservice.repository.UserRepository;
+import com.ecommerce.userservice.security.LoginAttemptLimiter;
 import com.ecommerce.userservice.security.JwtTokenProvider;
+import com.ecommerce.userservice.security.JwtUserPrincipal;
+import com.ecommerce.userservice.security.PasswordHasher;
+import com.ecommerce.userservice.security.RefreshTokenStore;
+import com.ecommerce.userservice.security.TokenRevocationList;
+import com.ecommerce.userservice.security.UserActiveCache;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -22,11 +32,18 @@ import java.util.Set;
 public class UserService {
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtTokenProvider jwtTokenProvider;
-    private final AuthenticationManager authenticationManager;
+    private final UserActiveCache userActiveCache;
+    private final LoginAttemptLimiter loginAttemptLimiter;
+    private final RefreshTokenStore refreshTokenStore;
+    private final TokenRevocationList tokenRevocationList;
+    private final LoginActivityRecorder loginActivityRecorder;
+    private final UserLookupService userLookupService;
+    private final TransactionTemplate transactionTemplate;
     
-    @Transactional
+    // Not transactional: the password is hashed before the insert opens a transaction, so no
+    // connection is held while waiting on the hash pool
     public AuthResponse register(RegisterRequest request) {
         log.info("Registering new user: {}", request.getEmail());
         
@@ -38,49 +55,119 @@ public class UserService {
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHasher.encode(request.getPassword()));
         
         Set<String> roles = new HashSet<>();
         roles.add("ROLE_USER");
         user.setRoles(roles);
         
-        User savedUser = userRepository.save(user);
+        User savedUser = transactionTemplate.execute(status -> {
+            User saved = userRepository.save(user);
+            userRepository.assignRoles(saved.getId(), roles);
+            return saved;
+        });
         log.info("User registered successfully: {}", savedUser.getId());
         
-        String token = jwtTokenProvider.generateToken(savedUser.getEmail());
-        String refreshToken = jwtTokenProvider.generateRefreshToken(savedUser.getEmail());
-        
-        return new AuthResponse(token, refreshToken, mapToDTO(savedUser));
+        return issueTokens(savedUser);
     }
     
-    public AuthResponse login(AuthRequest request) {
+    // Not transactional: no connection is held while the password is checked
+    public AuthResponse login(AuthRequest request, String clientIp, String userAgent) {
         log.info("User login attempt: {}", request.getEmail());
+        loginAttemptLimiter.checkAccount(request.getEmail());
         
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
-        
-        User user = userRepository.findByEmail(request.getEmail())
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userRepository.findByEmail(request.getEmail()).orElse(null);
+        if (!passwordHasher.matches(request.getPassword(), user != null ? user.getPassword() : null)) {
+            loginAttemptLimiter.recordFailure(request.getEmail());
+            if (user != null) {
+                loginActivityRecorder.recordFailure(user.getId(), clientIp, userAgent);
+            }
+            throw new BadCredentialsException("Bad credentials");
+        }
+        if (!user.isActive()) {
+            loginActivityRecorder.recordFailure(user.getId(), clientIp, userAgent);
+            throw new DisabledException("User is disabled");
+        }
         
-        String token = jwtTokenProvider.generateToken(user.getEmail());
-        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getEmail());
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            userRepository.updatePassword(user.getId(), passwordHasher.encode(request.getPassword()));
+            log.info("Password hash upgraded for user: {}", user.getId());
+        }
         
+        loginActivityRecorder.recordLogin(user.getId(), clientIp, userAgent);
         log.info("User logged in successfully: {}", user.getId());
         
+        return issueTokens(withRoles(user));
+    }
+    
+    // Rotates the refresh token without touching the database; the response carries no user
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        Claims claims = jwtTokenProvider.parseClaims(request.getRefreshToken());
+        if (claims == null || !JwtTokenProvider.isRefreshToken(claims)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        }
+        
+        String familyId = claims.get(JwtTokenProvider.CLAIM_FAMILY, String.class);
+        String newTokenId = UUID.randomUUID().toString();
+        RefreshTokenStore.Rotation rotation = refreshTokenStore.rotate(familyId, claims.getId(), newTokenId);
+        if (rotation == RefreshTokenStore.Rotation.REUSED) {
+            // An old token was replayed: cut off every token issued to this login
+            tokenRevocationList.revoke(familyId);
+            log.warn("Refresh token reuse detected, revoked family {} of user {}",
+                    familyId, claims.get(JwtTokenProvider.CLAIM_USER_ID));
+        }
+        RefreshTokenStore.Family family = rotation == RefreshTokenStore.Rotation.ROTATED ? refreshTokenStore.get(familyId) : null;
+        if (family == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        }
+        if (!userActiveCache.isActive(family.userId())) {
+            refreshTokenStore.delete(familyId);
+            throw new DisabledException("User is disabled");
+        }
+        
+        String token = jwtTokenProvider.generateToken(family.userId(), claims.getSubject(), family.roles(), familyId);
+        String refreshToken = jwtTokenProvider.generateRefreshToken(family.userId(), claims.getSubject(), familyId, newTokenId);
+        return new AuthResponse(token, refreshToken, null);
+    }
+    
+    // Ends the login behind the access token: its refresh family and every token issued to it
+    public void logout(String accessToken) {
+        Claims claims = jwtTokenProvider.parseClaims(accessToken);
+        if (claims == null) {
+            return;
+        }
+        String familyId = claims.get(JwtTokenProvider.CLAIM_FAMILY, String.class);
+        if (familyId != null) {
+            refreshTokenStore.delete(familyId);
+            tokenRevocationList.revoke(familyId);
+        } else if (claims.getId() != null) {
+            tokenRevocationList.revoke(claims.getId());
+        }
+        log.info("User logged out: {}", claims.get(JwtTokenProvider.CLAIM_USER_ID));
+    }
+    
+    private AuthResponse issueTokens(User user) {
+        String familyId = UUID.randomUUID().toString();
+        String refreshTokenId = UUID.randomUUID().toString();
+        refreshTokenStore.create(familyId, refreshTokenId, user.getId(), user.getRoles());
+        
+        String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRoles(), familyId);
+        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getId(), user.getEmail(), familyId, refreshTokenId);
         return new AuthResponse(token, refreshToken, mapToDTO(user));
     }
     
+    @Transactional(readOnly = true)
     public UserDTO getCurrentUser(String email) {
         User user = userRepository.findByEmail(email)
             .orElseThrow(() -> new RuntimeException("User not found"));
-        return mapToDTO(user);
+        return mapToDTO(withRoles(user));
     }
     
+    @Transactional(readOnly = true)
     public UserDTO getUserById(String userId) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found"));
-        return mapToDTO(user);
+        return mapToDTO(withRoles(user));
     }
     
     @Transactional
@@ -92,9 +179,37 @@ public class UserService {
         user.setLastName(userDTO.getLastName());
         
         User updatedUser = userRepository.save(user);
+        userLookupService.evict(updatedUser.getId());
+        userActiveCache.invalidate(updatedUser.getId());
         log.info("User updated: {}", updatedUser.getId());
         
-        return mapToDTO(updatedUser);
+        return mapToDTO(withRoles(updatedUser));
+    }
+    
+    @Transactional
+    public void setActive(Long userId, boolean active) {
+        if (userRepository.updateActive(userId, active) == 0) {
+            throw new RuntimeException("User not found");
+        }
+        userLookupService.evict(userId);
+        userActiveCache.invalidate(userId);
+        log.info("User {} {}", userId, active ? "activated" : "deactivated");
+    }
+    
+    // Claims-based principals carry the id; the legacy lookup path only has the email
+    public Long resolveUserId(UserDetails userDetails) {
+        if (userDetails instanceof JwtUserPrincipal principal) {
+            return principal.getId();
+        }
+        return userRepository.findByEmail(userDetails.getUsername())
+            .map(User::getId)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+    
+    // Roles are embedded in tokens and must come from the mapping table, not the unmapped field
+    private User withRoles(User user) {
+        user.setRoles(new HashSet<>(userRepository.findRoleNames(user.getId())));
+        return user;
     }
     
     private UserDTO mapToDTO(User user) {
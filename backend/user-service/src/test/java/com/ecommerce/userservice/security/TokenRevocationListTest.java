@@ -0,0 +1,96 @@
+package com.ecommerce.userservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the revocation list against a Redis that fails on demand, to check that logout keeps
+ * working through an outage and that the revocation reaches Redis once it is back.
+ */
+class TokenRevocationListTest {
+    
+    private static final String KEY = "auth:revoked";
+    private static final RedisConnectionFailureException DOWN = new RedisConnectionFailureException("Redis is down");
+    
+    @SuppressWarnings("unchecked")
+    private final ZSetOperations<String, String> zset = mock(ZSetOperations.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TokenRevocationList revocationList;
+    
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForZSet()).thenReturn(zset);
+        revocationList = new TokenRevocationList(redisTemplate, meterRegistry, 1000, 0.01, 900_000, Duration.ofSeconds(5));
+    }
+    
+    @Test
+    void revokeDuringAnOutageTakesEffectLocallyAndIsWrittenOnTheNextSync() {
+        when(zset.add(eq(KEY), anyString(), anyDouble())).thenThrow(DOWN);
+        when(zset.score(KEY, "family-1")).thenThrow(DOWN);
+        
+        revocationList.revoke("family-1");
+        
+        assertThat(revocationList.isRevoked("token-1", "family-1")).isTrue();
+        assertThat(pending()).isEqualTo(1);
+        
+        reset(zset);
+        when(zset.add(eq(KEY), anyString(), anyDouble())).thenReturn(true);
+        when(zset.score(KEY, "family-1")).thenReturn(1.0);
+        revocationList.sync();
+        
+        verify(zset).add(eq(KEY), eq("family-1"), anyDouble());
+        assertThat(pending()).isZero();
+        assertThat(revocationList.isRevoked("token-1", "family-1")).isTrue();
+    }
+    
+    @Test
+    void syncAndRebuildCountFailuresInsteadOfThrowing() {
+        when(zset.rangeByScoreWithScores(eq(KEY), anyDouble(), anyDouble())).thenThrow(DOWN);
+        when(zset.removeRangeByScore(eq(KEY), anyDouble(), anyDouble())).thenThrow(DOWN);
+        
+        revocationList.sync();
+        revocationList.sync();
+        revocationList.rebuild();
+        
+        assertThat(failures("sync")).isEqualTo(2);
+        assertThat(failures("rebuild")).isEqualTo(1);
+    }
+    
+    @Test
+    void rebuildKeepsRevocationsThatAreNotInRedisYet() {
+        when(zset.add(eq(KEY), anyString(), anyDouble())).thenThrow(DOWN);
+        revocationList.revoke("family-2");
+        
+        when(zset.rangeByScoreWithScores(eq(KEY), anyDouble(), anyDouble())).thenReturn(Set.of());
+        revocationList.rebuild();
+        
+        assertThat(revocationList.isRevoked("family-2")).isTrue();
+        verify(zset, times(1)).add(eq(KEY), eq("family-2"), anyDouble());
+    }
+    
+    private double pending() {
+        return meterRegistry.get("security.revocation.pending").gauge().value();
+    }
+    
+    private double failures(String operation) {
+        return meterRegistry.get("security.revocation.redis.failures").tag("operation", operation).counter().count();
+    }
+}
@@ -0,0 +1,216 @@
+package com.ecommerce.userservice.service;
+
+import com.ecommerce.userservice.client.OrderHistoryClient;
+import com.ecommerce.userservice.client.ProductRecommendationClient;
+import com.ecommerce.userservice.dto.AccountOverviewDTO;
+import com.ecommerce.userservice.dto.UserDTO;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the overview fan-out against local stub order and product services. The clients' read
+ * timeouts are far above the branch timeouts, so a fast return on a slow stub can only come from
+ * the branch being cancelled.
+ */
+class AccountOverviewServiceTest {
+    
+    private static final String ORDERS = """
+            {"content":[{"id":11,"orderNumber":"ORD-11","status":"SHIPPED","totalAmount":42.50}]}""";
+    private static final String PRODUCTS = """
+            {"content":[{"id":3,"sku":"SKU-3","name":"Lamp","price":19.99},{"id":4,"sku":"SKU-4","name":"Desk","price":149.00}]}""";
+    // Generous, so the first request of a cold JVM is not mistaken for a timeout
+    private static final Duration BRANCH_TIMEOUT = Duration.ofSeconds(3);
+    private static final Duration SHORT_TIMEOUT = Duration.ofMillis(300);
+    private static final Duration CLIENT_READ_TIMEOUT = Duration.ofSeconds(10);
+    
+    private HttpServer orderStub;
+    private HttpServer productStub;
+    private final AtomicReference<HttpHandler> orderHandler = new AtomicReference<>();
+    private final AtomicReference<HttpHandler> productHandler = new AtomicReference<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    
+    private final UserService userService = mock(UserService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AccountOverviewService service;
+    
+    @BeforeEach
+    void startStubs() throws IOException {
+        orderStub = stub("/api/v1/orders/", orderHandler);
+        productStub = stub("/api/v1/products/", productHandler);
+        orderHandler.set(json(ORDERS));
+        productHandler.set(json(PRODUCTS));
+        
+        OrderHistoryClient orders = new OrderHistoryClient(RestClient.builder(), baseUrl(orderStub),
+                Duration.ofSeconds(1), CLIENT_READ_TIMEOUT);
+        ProductRecommendationClient products = new ProductRecommendationClient(RestClient.builder(), baseUrl(productStub),
+                Duration.ofSeconds(1), CLIENT_READ_TIMEOUT);
+        service = new AccountOverviewService(userService, orders, products, meterRegistry);
+        ReflectionTestUtils.setField(service, "recentOrders", 5);
+        ReflectionTestUtils.setField(service, "recommendedProducts", 8);
+        ReflectionTestUtils.setField(service, "ordersTimeout", BRANCH_TIMEOUT);
+        ReflectionTestUtils.setField(service, "productsTimeout", BRANCH_TIMEOUT);
+        
+        when(userService.getCurrentUser("ada@example.com")).thenReturn(user());
+    }
+    
+    @AfterEach
+    void stopStubs() {
+        release.countDown();
+        orderStub.stop(0);
+        productStub.stop(0);
+    }
+    
+    @Test
+    void combinesAllThreeSections() {
+        AtomicReference<String> authorization = new AtomicReference<>();
+        orderHandler.set(exchange -> {
+            authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+            json(ORDERS).handle(exchange);
+        });
+        
+        AccountOverviewDTO overview = service.getOverview("ada@example.com", 7L, "Bearer token");
+        
+        assertThat(overview.getUser().getEmail()).isEqualTo("ada@example.com");
+        assertThat(overview.getRecentOrders()).extracting("orderNumber").containsExactly("ORD-11");
+        assertThat(overview.getRecommendedProducts()).extracting("sku").containsExactly("SKU-3", "SKU-4");
+        assertThat(overview.getUnavailable()).isEmpty();
+        assertThat(authorization.get()).isEqualTo("Bearer token");
+    }
+    
+    @Test
+    void failedBranchIsReportedAndTheRestIsReturned() {
+        productHandler.set(exchange -> respond(exchange, 500, "{}"));
+        
+        AccountOverviewDTO overview = service.getOverview("ada@example.com", 7L, "Bearer token");
+        
+        assertThat(overview.getUser()).isNotNull();
+        assertThat(overview.getRecentOrders()).hasSize(1);
+        assertThat(overview.getRecommendedProducts()).isNull();
+        assertThat(overview.getUnavailable()).containsExactly("products");
+        assertThat(count("products", "error")).isEqualTo(1);
+    }
+    
+    @Test
+    void slowBranchIsCancelledAtItsTimeout() {
+        orderHandler.set(exchange -> {
+            awaitRelease();
+            json(ORDERS).handle(exchange);
+        });
+        ReflectionTestUtils.setField(service, "ordersTimeout", SHORT_TIMEOUT);
+        
+        long start = System.nanoTime();
+        AccountOverviewDTO overview = service.getOverview("ada@example.com", 7L, "Bearer token");
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        
+        assertThat(overview.getRecentOrders()).isNull();
+        assertThat(overview.getRecommendedProducts()).hasSize(2);
+        assertThat(overview.getUnavailable()).containsExactly("orders");
+        assertThat(elapsed).isGreaterThanOrEqualTo(SHORT_TIMEOUT).isLessThan(Duration.ofSeconds(2));
+        assertThat(count("orders", "timeout")).isEqualTo(1);
+        assertThat(count("products", "success")).isEqualTo(1);
+    }
+    
+    @Test
+    void branchesRunConcurrently() {
+        HttpHandler slow = exchange -> {
+            sleep(200);
+            json(exchange.getRequestURI().getPath().contains("orders") ? ORDERS : PRODUCTS).handle(exchange);
+        };
+        orderHandler.set(slow);
+        productHandler.set(slow);
+        service.getOverview("ada@example.com", 7L, "Bearer token");
+        
+        long start = System.nanoTime();
+        AccountOverviewDTO overview = service.getOverview("ada@example.com", 7L, "Bearer token");
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        
+        assertThat(overview.getUnavailable()).isEmpty();
+        assertThat(elapsed).isLessThan(Duration.ofMillis(390));
+    }
+    
+    @Test
+    void failedUserLookupStillReturnsTheRemoteSections() {
+        when(userService.getCurrentUser("ada@example.com")).thenThrow(new RuntimeException("User not found"));
+        
+        AccountOverviewDTO overview = service.getOverview("ada@example.com", 7L, "Bearer token");
+        
+        assertThat(overview.getUser()).isNull();
+        assertThat(overview.getRecentOrders()).hasSize(1);
+        assertThat(overview.getRecommendedProducts()).hasSize(2);
+        assertThat(overview.getUnavailable()).containsExactly("user");
+    }
+    
+    private long count(String branch, String outcome) {
+        return meterRegistry.get("users.overview.branch.duration").tag("branch", branch).tag("outcome", outcome).timer().count();
+    }
+    
+    private static HttpServer stub(String path, AtomicReference<HttpHandler> handler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(path, exchange -> handler.get().handle(exchange));
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return server;
+    }
+    
+    private static String baseUrl(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1";
+    }
+    
+    private static HttpHandler json(String body) {
+        return exchange -> respond(exchange, 200, body);
+    }
+    
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+    
+    private void awaitRelease() {
+        try {
+            release.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static UserDTO user() {
+        UserDTO user = new UserDTO();
+        user.setId(7L);
+        user.setEmail("ada@example.com");
+        user.setFirstName("Ada");
+        return user;
+    }
+}
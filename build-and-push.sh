@@ -74,12 +74,13 @@ build_frontend() {
 build_backend() {
     print_status "Building backend Docker image..."
     
-    cd "${SCRIPT_DIR}/backend/user-service"
+    # Built from backend/ so the image can include the shared common module
+    cd "${SCRIPT_DIR}/backend"
     
     IMAGE_NAME="${REGION}-docker.pkg.dev/${PROJECT_ID}/${REPO_NAME}/user-service:${VERSION}"
     IMAGE_LATEST="${REGION}-docker.pkg.dev/${PROJECT_ID}/${REPO_NAME}/user-service:latest"
     
-    docker build -t ${IMAGE_NAME} -t ${IMAGE_LATEST} .
+    docker build -f user-service/Dockerfile -t ${IMAGE_NAME} -t ${IMAGE_LATEST} .
     
     if [ $? -eq 0 ]; then
         print_success "Backend image built successfully"
@@ -0,0 +1,148 @@
+-- Orders Database: monthly range partitioning and archival
+--
+-- Converts orders, order_items and order_status_history into tables partitioned by month on
+-- created_at, and installs the functions used by order-service's archival job
+-- (orders.archive.enabled). Run once, after schema.sql, during a maintenance window:
+--
+--   psql -d ecommerce_orders -f partitioning.sql
+--
+-- Partitioned tables cannot enforce uniqueness without the partition key, so the primary key
+-- becomes (id, created_at) and the foreign keys from order_items / order_status_history are
+-- dropped. Order ids still come from one sequence and order numbers embed a timestamp plus a
+-- random suffix, so neither can collide in practice.
+--
+-- Closed orders past the retention horizon move to the *_archive tables from schema.sql. Those
+-- tables are not compressed; they keep archived rows out of the live partitions and indexes.
+-- Lookups by id and order number, the per-user order listing and the export read both.
+
+BEGIN;
+
+ALTER TABLE order_items DROP CONSTRAINT IF EXISTS order_items_order_id_fkey;
+ALTER TABLE order_status_history DROP CONSTRAINT IF EXISTS order_status_history_order_id_fkey;
+
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER TABLE order_items RENAME TO order_items_unpartitioned;
+ALTER TABLE order_status_history RENAME TO order_status_history_unpartitioned;
+
+CREATE TABLE orders (LIKE orders_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (created_at);
+CREATE TABLE order_items (LIKE order_items_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (created_at);
+CREATE TABLE order_status_history (LIKE order_status_history_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (created_at);
+
+-- Keep the existing sequences alive once the old tables are dropped
+ALTER SEQUENCE orders_id_seq OWNED BY orders.id;
+ALTER SEQUENCE order_items_id_seq OWNED BY order_items.id;
+ALTER SEQUENCE order_status_history_id_seq OWNED BY order_status_history.id;
+
+ALTER TABLE orders ADD PRIMARY KEY (id, created_at);
+ALTER TABLE order_items ADD PRIMARY KEY (id, created_at);
+ALTER TABLE order_status_history ADD PRIMARY KEY (id, created_at);
+
+CREATE INDEX idx_orders_p_order_number ON orders(order_number);
+CREATE INDEX idx_orders_p_user_id ON orders(user_id, created_at);
+CREATE INDEX idx_orders_p_status ON orders(status, created_at);
+CREATE INDEX idx_orders_p_created_at ON orders(created_at);
+CREATE INDEX idx_orders_p_pending ON orders(id, created_at) WHERE status = 'PENDING';
+CREATE INDEX idx_order_items_p_order_id ON order_items(order_id);
+CREATE INDEX idx_order_items_p_product_id ON order_items(product_id);
+CREATE INDEX idx_order_status_history_p_order_id ON order_status_history(order_id);
+
+-- Creates one partition per table for every month in [start_month, end_month)
+CREATE OR REPLACE FUNCTION create_order_partitions(start_month DATE, end_month DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    cur_month DATE := date_trunc('month', start_month)::DATE;
+    tbl TEXT;
+    created INTEGER := 0;
+BEGIN
+    WHILE cur_month < end_month LOOP
+        FOREACH tbl IN ARRAY ARRAY['orders', 'order_items', 'order_status_history'] LOOP
+            IF to_regclass(format('%s_p%s', tbl, to_char(cur_month, 'YYYYMM'))) IS NULL THEN
+                EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                    format('%s_p%s', tbl, to_char(cur_month, 'YYYYMM')), tbl, cur_month, (cur_month + INTERVAL '1 month')::DATE);
+                created := created + 1;
+            END IF;
+        END LOOP;
+        cur_month := (cur_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Moves up to batch_size closed orders created before cutoff, with their items and history,
+-- into the archive tables in one statement. Returns the number of orders moved.
+CREATE OR REPLACE FUNCTION archive_closed_orders(cutoff TIMESTAMP, batch_size INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    moved_count INTEGER;
+BEGIN
+    WITH batch AS (
+        SELECT id FROM orders
+        WHERE created_at < cutoff AND status IN ('DELIVERED', 'CANCELLED', 'REFUNDED')
+        ORDER BY created_at, id
+        LIMIT batch_size
+        FOR UPDATE SKIP LOCKED
+    ), moved_items AS (
+        DELETE FROM order_items oi USING batch b WHERE oi.order_id = b.id RETURNING oi.*
+    ), archived_items AS (
+        INSERT INTO order_items_archive SELECT * FROM moved_items
+    ), moved_history AS (
+        DELETE FROM order_status_history h USING batch b WHERE h.order_id = b.id RETURNING h.*
+    ), archived_history AS (
+        INSERT INTO order_status_history_archive SELECT * FROM moved_history
+    ), moved AS (
+        DELETE FROM orders o USING batch b WHERE o.id = b.id RETURNING o.*
+    )
+    INSERT INTO orders_archive SELECT * FROM moved;
+
+    GET DIAGNOSTICS moved_count = ROW_COUNT;
+    RETURN moved_count;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Drops monthly partitions that end on or before cutoff and no longer hold any rows
+CREATE OR REPLACE FUNCTION drop_empty_order_partitions(cutoff DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    part RECORD;
+    is_empty BOOLEAN;
+    dropped INTEGER := 0;
+BEGIN
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname IN ('orders', 'order_items', 'order_status_history')
+          AND c.relname ~ '_p[0-9]{6}$'
+          AND (to_date(right(c.relname, 6), 'YYYYMM') + INTERVAL '1 month')::DATE <= cutoff
+    LOOP
+        EXECUTE format('SELECT NOT EXISTS (SELECT 1 FROM %I)', part.relname) INTO is_empty;
+        IF is_empty THEN
+            EXECUTE format('DROP TABLE %I', part.relname);
+            dropped := dropped + 1;
+        END IF;
+    END LOOP;
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_order_partitions(
+    COALESCE((SELECT min(created_at) FROM orders_unpartitioned), CURRENT_TIMESTAMP)::DATE,
+    (date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '4 months')::DATE);
+
+CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+CREATE TABLE order_items_default PARTITION OF order_items DEFAULT;
+CREATE TABLE order_status_history_default PARTITION OF order_status_history DEFAULT;
+
+INSERT INTO orders SELECT * FROM orders_unpartitioned;
+INSERT INTO order_items SELECT * FROM order_items_unpartitioned;
+INSERT INTO order_status_history SELECT * FROM order_status_history_unpartitioned;
+
+DROP TABLE order_items_unpartitioned;
+DROP TABLE order_status_history_unpartitioned;
+DROP TABLE orders_unpartitioned;
+
+COMMIT;
@@ -87,3 +87,178 @@ VALUES
 (2, 'PENDING', 'Order created', 'SYSTEM'),
 (2, 'CONFIRMED', 'Payment confirmed', 'SYSTEM'),
 (2, 'SHIPPED', 'Order shipped', 'WAREHOUSE');
+
+-- Supports the stale PENDING order reaper's keyset scan
+CREATE INDEX IF NOT EXISTS idx_orders_pending_created_at ON orders(id, created_at) WHERE status = 'PENDING';
+
+-- Sales rollups, kept up to date from sales_stats_deltas by apply_sales_stats_deltas and
+-- recomputed from order history by rebuild_sales_stats (POST /orders/stats/rebuild)
+CREATE TABLE IF NOT EXISTS product_sales_stats (
+    product_id BIGINT PRIMARY KEY,
+    units_sold BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS daily_sales_stats (
+    sales_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (sales_date, status)
+);
+
+CREATE TABLE IF NOT EXISTS status_sales_stats (
+    status VARCHAR(20) PRIMARY KEY,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Rollup changes appended by order transactions and folded into the rollups asynchronously, so
+-- checkouts never update the shared rollup rows. Rows without a product_id move order counts
+-- between (sales_date, status) buckets; rows with one change a product's units sold.
+CREATE TABLE IF NOT EXISTS sales_stats_deltas (
+    id BIGSERIAL PRIMARY KEY,
+    sales_date DATE,
+    status VARCHAR(20),
+    product_id BIGINT,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Archive of closed orders moved out of the hot tables by the order archival job.
+-- Same column layout as the live tables so rows move with INSERT ... SELECT *.
+-- The archive is not compressed: rows are stored like any heap row and only values large enough
+-- to be TOASTed get Postgres' usual compression. The saving is that archived rows sit in fully
+-- packed pages (fillfactor 100) outside the live tables and their indexes.
+CREATE TABLE IF NOT EXISTS orders_archive (LIKE orders) WITH (fillfactor = 100);
+CREATE TABLE IF NOT EXISTS order_items_archive (LIKE order_items) WITH (fillfactor = 100);
+CREATE TABLE IF NOT EXISTS order_status_history_archive (LIKE order_status_history) WITH (fillfactor = 100);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_orders_archive_id ON orders_archive(id);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_orders_archive_order_number ON orders_archive(order_number);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_user_id ON orders_archive(user_id);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_created_at ON orders_archive(created_at);
+CREATE INDEX IF NOT EXISTS idx_order_items_archive_order_id ON order_items_archive(order_id);
+CREATE INDEX IF NOT EXISTS idx_order_status_history_archive_order_id ON order_status_history_archive(order_id);
+
+-- Payment keys (payment:<orderId>:<paymentId or status>) already applied by the payment consumer
+CREATE TABLE IF NOT EXISTS processed_messages (
+    message_id VARCHAR(100) PRIMARY KEY,
+    processed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_processed_messages_processed_at ON processed_messages(processed_at);
+
+-- Cluster-wide locks for scheduled jobs (ShedLock), so each job runs on one replica at a time
+CREATE TABLE IF NOT EXISTS shedlock (
+    name VARCHAR(64) PRIMARY KEY,
+    lock_until TIMESTAMP NOT NULL,
+    locked_at TIMESTAMP NOT NULL,
+    locked_by VARCHAR(255) NOT NULL
+);
+
+-- Folds up to batch_size of the oldest deltas into the rollups and deletes them. Returns the
+-- number of deltas applied, or 0 without waiting when another session holds the rollups.
+-- Keys are upserted in sorted order so concurrent writers always lock rows in the same order.
+CREATE OR REPLACE FUNCTION apply_sales_stats_deltas(batch_size INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    applied INTEGER;
+BEGIN
+    IF NOT pg_try_advisory_xact_lock(hashtext('sales_stats')) THEN
+        RETURN 0;
+    END IF;
+
+    WITH batch AS (
+        DELETE FROM sales_stats_deltas
+        WHERE id IN (SELECT id FROM sales_stats_deltas ORDER BY id LIMIT batch_size)
+        RETURNING *
+    ), daily AS (
+        INSERT INTO daily_sales_stats (sales_date, status, order_count, revenue, updated_at)
+        SELECT sales_date, status, SUM(order_count), SUM(revenue), CURRENT_TIMESTAMP
+        FROM batch WHERE product_id IS NULL
+        GROUP BY sales_date, status ORDER BY sales_date, status
+        ON CONFLICT (sales_date, status) DO UPDATE SET
+            order_count = daily_sales_stats.order_count + EXCLUDED.order_count,
+            revenue = daily_sales_stats.revenue + EXCLUDED.revenue,
+            updated_at = CURRENT_TIMESTAMP
+    ), statuses AS (
+        INSERT INTO status_sales_stats (status, order_count, revenue, updated_at)
+        SELECT status, SUM(order_count), SUM(revenue), CURRENT_TIMESTAMP
+        FROM batch WHERE product_id IS NULL
+        GROUP BY status ORDER BY status
+        ON CONFLICT (status) DO UPDATE SET
+            order_count = status_sales_stats.order_count + EXCLUDED.order_count,
+            revenue = status_sales_stats.revenue + EXCLUDED.revenue,
+            updated_at = CURRENT_TIMESTAMP
+    ), products AS (
+        INSERT INTO product_sales_stats (product_id, units_sold, revenue, updated_at)
+        SELECT product_id, SUM(units), SUM(revenue), CURRENT_TIMESTAMP
+        FROM batch WHERE product_id IS NOT NULL
+        GROUP BY product_id ORDER BY product_id
+        ON CONFLICT (product_id) DO UPDATE SET
+            units_sold = product_sales_stats.units_sold + EXCLUDED.units_sold,
+            revenue = product_sales_stats.revenue + EXCLUDED.revenue,
+            updated_at = CURRENT_TIMESTAMP
+    )
+    SELECT COUNT(*) INTO applied FROM batch;
+
+    RETURN applied;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Recomputes the rollups from order history into shadow tables and swaps them in. The live
+-- tables are only locked for the final rename; checkouts never touch them. Deltas visible to the
+-- history scan are already counted by it and are deleted in the same snapshot, later ones are
+-- applied on top of the new tables.
+CREATE OR REPLACE FUNCTION rebuild_sales_stats(OUT products INTEGER, OUT daily INTEGER, OUT statuses INTEGER)
+AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('sales_stats'));
+
+    DROP TABLE IF EXISTS product_sales_stats_rebuild, daily_sales_stats_rebuild, status_sales_stats_rebuild;
+    CREATE TABLE product_sales_stats_rebuild (LIKE product_sales_stats INCLUDING ALL);
+    CREATE TABLE daily_sales_stats_rebuild (LIKE daily_sales_stats INCLUDING ALL);
+    CREATE TABLE status_sales_stats_rebuild (LIKE status_sales_stats INCLUDING ALL);
+
+    WITH consumed AS (
+        DELETE FROM sales_stats_deltas
+    ), all_orders AS (
+        SELECT id, created_at, status, total_amount FROM orders
+        UNION ALL SELECT id, created_at, status, total_amount FROM orders_archive
+    ), all_items AS (
+        SELECT oi.product_id, oi.quantity, oi.total_price FROM order_items oi
+        JOIN orders o ON o.id = oi.order_id WHERE o.status NOT IN ('CANCELLED', 'REFUNDED')
+        UNION ALL SELECT ai.product_id, ai.quantity, ai.total_price FROM order_items_archive ai
+        JOIN orders_archive ao ON ao.id = ai.order_id WHERE ao.status NOT IN ('CANCELLED', 'REFUNDED')
+    ), daily_rows AS (
+        INSERT INTO daily_sales_stats_rebuild (sales_date, status, order_count, revenue, updated_at)
+        SELECT CAST(created_at AS DATE), status, COUNT(*), SUM(total_amount), CURRENT_TIMESTAMP
+        FROM all_orders GROUP BY CAST(created_at AS DATE), status
+    ), status_rows AS (
+        INSERT INTO status_sales_stats_rebuild (status, order_count, revenue, updated_at)
+        SELECT status, COUNT(*), SUM(total_amount), CURRENT_TIMESTAMP
+        FROM all_orders GROUP BY status
+    )
+    INSERT INTO product_sales_stats_rebuild (product_id, units_sold, revenue, updated_at)
+    SELECT product_id, SUM(quantity), SUM(total_price), CURRENT_TIMESTAMP
+    FROM all_items GROUP BY product_id;
+
+    SELECT COUNT(*) INTO products FROM product_sales_stats_rebuild;
+    SELECT COUNT(*) INTO daily FROM daily_sales_stats_rebuild;
+    SELECT COUNT(*) INTO statuses FROM status_sales_stats_rebuild;
+
+    DROP TABLE product_sales_stats, daily_sales_stats, status_sales_stats;
+    ALTER TABLE product_sales_stats_rebuild RENAME TO product_sales_stats;
+    ALTER TABLE daily_sales_stats_rebuild RENAME TO daily_sales_stats;
+    ALTER TABLE status_sales_stats_rebuild RENAME TO status_sales_stats;
+    ALTER INDEX product_sales_stats_rebuild_pkey RENAME TO product_sales_stats_pkey;
+    ALTER INDEX daily_sales_stats_rebuild_pkey RENAME TO daily_sales_stats_pkey;
+    ALTER INDEX status_sales_stats_rebuild_pkey RENAME TO status_sales_stats_pkey;
+END;
+$$ LANGUAGE plpgsql;
@@ -42,12 +42,19 @@ CREATE TABLE IF NOT EXISTS product_tags (
     PRIMARY KEY (product_id, tag)
 );
 
+-- Order events already applied by the stock consumer, keyed by event type and order id
+CREATE TABLE IF NOT EXISTS processed_messages (
+    message_id VARCHAR(100) PRIMARY KEY,
+    processed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
 CREATE INDEX idx_products_sku ON products(sku);
 CREATE INDEX idx_products_category ON products(category_id);
 CREATE INDEX idx_products_active ON products(is_active);
 CREATE INDEX idx_products_featured ON products(is_featured);
 CREATE INDEX idx_categories_slug ON categories(slug);
 CREATE INDEX idx_categories_parent ON categories(parent_id);
+CREATE INDEX idx_processed_messages_processed_at ON processed_messages(processed_at);
 
 -- Insert sample categories
 INSERT INTO categories (name, slug, description) VALUES 
@@ -99,6 +99,13 @@ create_secrets() {
         --namespace=ecommerce \
         --dry-run=client -o yaml | kubectl apply -f -
     
+    # Shared by order-service and user-service for the /users/internal endpoints
+    INTERNAL_SERVICE_TOKEN=$(openssl rand -base64 32)
+    kubectl create secret generic internal-service-token \
+        --from-literal=token=${INTERNAL_SERVICE_TOKEN} \
+        --namespace=ecommerce \
+        --dry-run=client -o yaml | kubectl apply -f -
+    
     print_success "Secrets created"
 }
 
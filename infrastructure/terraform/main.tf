@@ -402,6 +402,26 @@ resource "google_pubsub_subscription" "subscriptions" {
   }
 }
 
+# Dedicated subscriptions for the product-service stock consumer
+resource "google_pubsub_subscription" "product_stock" {
+  for_each = toset(["order-created", "order-status-changed"])
+
+  name  = "${each.key}-product-stock"
+  topic = google_pubsub_topic.topics[each.key].name
+
+  ack_deadline_seconds = 60
+
+  retry_policy {
+    minimum_backoff = "10s"
+    maximum_backoff = "600s"
+  }
+
+  dead_letter_policy {
+    dead_letter_topic     = google_pubsub_topic.dead_letter.id
+    max_delivery_attempts = 5
+  }
+}
+
 resource "google_pubsub_topic" "dead_letter" {
   name = "dead-letter-topic"
 
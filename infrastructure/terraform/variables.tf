@@ -88,6 +88,7 @@ variable "pubsub_topics" {
   default = [
     "order-created",
     "order-updated",
+    "order-status-changed",
     "payment-processed",
     "notification-requested",
     "inventory-updated"